@@ -20,9 +20,18 @@
 package com.urbanelf.iat;
 
 import com.urbanelf.iat.content.ArchiveFormat;
+import com.urbanelf.iat.content.parser.BinaryArchiveReader;
 import com.urbanelf.iat.content.parser.ContentSpec;
+import com.urbanelf.iat.content.parser.IndexedArchiveReader;
+import com.urbanelf.iat.content.parser.ParserDispatcher;
+import com.urbanelf.iat.content.parser.StreamingContentSpec;
+import com.urbanelf.iat.content.writer.ExportProgress;
+import com.urbanelf.iat.content.writer.ExportService;
 import com.urbanelf.iat.content.writer.WriterDispatcher;
+import com.urbanelf.iat.content.writer.html.HTMLWriter;
+import com.urbanelf.iat.content.writer.html.Pagination;
 import com.urbanelf.iat.proto.PythonServer;
+import com.urbanelf.iat.ui.ExportProgressDialog;
 import com.urbanelf.iat.ui.MainFrame;
 import com.urbanelf.iat.ui.TOSFrame;
 import com.urbanelf.iat.util.ArrayUtils;
@@ -41,11 +50,15 @@ import com.urbanelf.iat.util.function.TriConsumer;
 import java.awt.Desktop;
 import java.awt.GridBagConstraints;
 import java.awt.GridBagLayout;
+import java.awt.Insets;
 import java.awt.event.WindowEvent;
+import java.io.BufferedOutputStream;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.io.PrintStream;
 import java.io.PrintWriter;
 import java.io.RandomAccessFile;
@@ -54,14 +67,19 @@ import java.nio.channels.FileLock;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.nio.file.attribute.BasicFileAttributes;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.util.Objects;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
 
 import javax.swing.Box;
 import javax.swing.BoxLayout;
@@ -74,6 +92,7 @@ import javax.swing.SwingUtilities;
 
 import javafx.application.Platform;
 import javafx.embed.swing.JFXPanel;
+import javafx.stage.DirectoryChooser;
 import javafx.stage.FileChooser;
 
 public class Core {
@@ -85,6 +104,8 @@ public class Core {
     public static final int SCROLL_UNIT_INCREMENT = 16;
     public static final int SCROLL_BLOCK_INCREMENT = 32;
 
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+
     private static FileChooser FILE_CHOOSER;
 
     private static FileLock lock;
@@ -98,6 +119,7 @@ public class Core {
 
     private static final JPanel exportArchivePanel;
     private static final JComboBox<ArchiveFormat> archiveFileFormat;
+    private static final JComboBox<Pagination> archivePagination;
 
     static {
         exportArchivePanel = new JPanel(new GridBagLayout());
@@ -117,6 +139,26 @@ public class Core {
                 this.fill = HORIZONTAL;
             }
         });
+        // Re-chunks large pages of HTML exports
+        final JPanel paginationPanel = new JPanel();
+        paginationPanel.setLayout(new BoxLayout(paginationPanel, BoxLayout.X_AXIS));
+        archivePagination = new JComboBox<>(Pagination.PRESETS);
+        paginationPanel.add(new JLabel("Page Size: "));
+        paginationPanel.add(Box.createHorizontalStrut(4));
+        paginationPanel.add(archivePagination);
+        archiveFileFormat.addActionListener(e -> archivePagination.setEnabled(
+                archiveFileFormat.getSelectedItem() == ArchiveFormat.HTML
+                        || archiveFileFormat.getSelectedItem() == ArchiveFormat.HTML_ZIP));
+
+        exportArchivePanel.add(paginationPanel, new GridBagConstraints() {
+            {
+                this.gridx = 0;
+                this.gridy = 1;
+                this.weightx = 1;
+                this.fill = HORIZONTAL;
+                this.insets = new Insets(4, 0, 0, 0);
+            }
+        });
     }
 
     private static boolean lockInstance(Path lockFilePath) {
@@ -147,11 +189,34 @@ public class Core {
         }
     }
 
-    public static void exportArchive(JFrame parent, ContentSpec spec) {
-        exportArchive(parent, spec, false);
+    /**
+     * @return Completes once the export is done with its output location, or null if it was cancelled
+     */
+    public static CompletableFuture<File> exportArchive(JFrame parent, ContentSpec spec) {
+        return exportArchive(parent, spec, false);
+    }
+
+    public static CompletableFuture<File> exportArchive(JFrame parent, ContentSpec spec, boolean destroyOnFinish) {
+        return exportArchive(parent, spec.content().getTitle(), spec.file(),
+                (dst, format, pagination, progress) -> WriterDispatcher.write(spec, dst, format, pagination, progress),
+                destroyOnFinish);
+    }
+
+    public static CompletableFuture<File> exportArchive(JFrame parent, StreamingContentSpec spec) {
+        return exportArchive(parent, spec, false);
+    }
+
+    public static CompletableFuture<File> exportArchive(JFrame parent, StreamingContentSpec spec,
+                                                        boolean destroyOnFinish) {
+        return exportArchive(parent, spec.content().getTitle(), spec.file(),
+                (dst, format, pagination, progress) -> WriterDispatcher.write(spec, dst, format, pagination, progress),
+                destroyOnFinish);
     }
 
-    public static void exportArchive(JFrame parent, ContentSpec spec, boolean destroyOnFinish) {
+    private static CompletableFuture<File> exportArchive(JFrame parent, String title, File src,
+                                                         ArchiveWriteTask writeTask, boolean destroyOnFinish) {
+        final CompletableFuture<File> export = new CompletableFuture<>();
+
         // Custom button labels
         String[] options = {"Cancel", "OK"};
 
@@ -170,90 +235,149 @@ public class Core {
                 options[1]
         );
 
-        if (result == 1) {
-            final CompletableFuture<Void> fxTask = new CompletableFuture<>();
+        if (result != 1) {
+            export.complete(null);
+            return export;
+        }
 
-            final boolean isEDT = SwingUtilities.isEventDispatchThread();
+        // Resolve format
+        final ArchiveFormat format = (ArchiveFormat) Objects.requireNonNull(archiveFileFormat.getSelectedItem());
+        final Pagination pagination = (Pagination) Objects.requireNonNull(archivePagination.getSelectedItem());
 
-            Platform.runLater(() -> {
-                try {
-                    // Resolve format
-                    final ArchiveFormat format = (ArchiveFormat) Objects.requireNonNull(archiveFileFormat.getSelectedItem());
-                    // Resolve destination
-                    final File dst = Core.saveFile(StringUtils.cleanFileName(spec.content().getTitle()) + '.' + format.getExtension(),
-                            format.getExtensionFilter());
-                    if (dst == null) {
-                        final CompletableFuture<Void> exportCancelledTask = new CompletableFuture<>();
-                        SwingUtilities.invokeLater(() -> {
-                            JOptionPane.showMessageDialog(parent,
-                                    "Operation cancelled.",
-                                    "Export Archive...",
-                                    JOptionPane.INFORMATION_MESSAGE);
-                            exportCancelledTask.complete(null);
-                        });
-                        try {
-                            exportCancelledTask.get();
-                        } catch (Exception ex) {
-                        }
-                        Core.info(TAG, "Export canceled.");
-                        fxTask.complete(null);
-                        return;
-                    }
-                    final File outputDir;
-                    if (format == ArchiveFormat.JSON) {
-                        // Edge case: copy file (already stored as JSON)
-                        Files.copy(spec.file().toPath(), dst.toPath());
-                        outputDir = dst.getParentFile();
-                    } else {
-                        // Convert file
-                        outputDir = WriterDispatcher.write(spec, dst, format);
-                    }
-                    // Delete temp file
-                    spec.file().deleteOnExit();
-
-                    // Notify success
-                    SwingUtilities.invokeLater(() -> {
-                        Object[] options2 = {"Open Directory", "Close"};
-                        int result2 = JOptionPane.showOptionDialog(
-                                parent,
-                                "Archive exported successfully.",
-                                "Export Finished",
-                                JOptionPane.DEFAULT_OPTION,
-                                JOptionPane.INFORMATION_MESSAGE,
-                                null,
-                                options2,
-                                options2[1]
-                        );
-                        if (result2 == 0) {
-                            try {
-                                Desktop.getDesktop().open(outputDir);
-                            } catch (IOException e) {
-                                Core.error(TAG, "Failed to open output directory", e);
-                            }
-                        }
-                        // Destroy frame
-                        if (parent != null && destroyOnFinish)
-                            parent.dispatchEvent(new WindowEvent(parent, WindowEvent.WINDOW_CLOSING));
-                        // Already exits [early] if running on EDT (see below)
-                        if (!isEDT)
-                            fxTask.complete(null);
-                    });
-                    // Prevents deadlock
-                    if (isEDT)
-                        fxTask.complete(null);
-                } catch (Exception ex) {
-                    Core.fatal(TAG, "Failed to export archive", ex);
-                    fxTask.completeExceptionally(ex);
+        // Only the file chooser runs on the FX thread, the export itself on the export service
+        Platform.runLater(() -> {
+            final File dst;
+            try {
+                dst = Core.saveFile(StringUtils.cleanFileName(title) + '.' + format.getExtension(),
+                        format.getExtensionFilter());
+            } catch (RuntimeException ex) {
+                Core.fatal(TAG, "Failed to export archive", ex);
+                export.completeExceptionally(ex);
+                return;
+            }
+            SwingUtilities.invokeLater(() -> {
+                if (dst == null) {
+                    JOptionPane.showMessageDialog(parent,
+                            "Operation cancelled.",
+                            "Export Archive...",
+                            JOptionPane.INFORMATION_MESSAGE);
+                    Core.info(TAG, "Export canceled.");
+                    export.complete(null);
+                    return;
                 }
+
+                final ExportProgressDialog progressDialog = new ExportProgressDialog(parent, title);
+                final Future<File> task = ExportService.submit(
+                        () -> writeArchive(src, dst, format, pagination, progressDialog, writeTask),
+                        done -> SwingUtilities.invokeLater(() -> {
+                            progressDialog.finish();
+                            finishExport(parent, done, destroyOnFinish, export);
+                        }));
+                progressDialog.start(task);
             });
+        });
+        return export;
+    }
 
-            // Wait for JavaFX task to complete (blocks current thread)
+    /**
+     * Exports a recovered archive to {@code dst} on the calling thread, without any dialog
+     * (see {@link com.urbanelf.iat.ui.BatchExportDialog}).
+     *
+     * @return Output location
+     */
+    public static File exportArchive(StreamingContentSpec spec, File dst, ArchiveFormat format,
+                                     Pagination pagination, ExportProgress progress) throws IOException {
+        return writeArchive(spec.file(), dst, format, pagination, progress,
+                (target, targetFormat, targetPagination, targetProgress) ->
+                        WriterDispatcher.write(spec, target, targetFormat, targetPagination, targetProgress));
+    }
+
+    private static File writeArchive(File src, File dst, ArchiveFormat format, Pagination pagination,
+                                     ExportProgress progress, ArchiveWriteTask writeTask) throws IOException {
+        final File outputDir;
+        if (format == ArchiveFormat.JSON || format == ArchiveFormat.JSON_GZIP) {
+            // Edge case: copy file (already stored as JSON, possibly compressed or binary)
+            copyJSON(src, dst, format == ArchiveFormat.JSON_GZIP);
+            outputDir = dst.getParentFile();
+        } else {
+            // Convert file
+            outputDir = writeTask.write(dst, format, pagination, progress);
+        }
+        // Delete temp file (and its page index, if any)
+        src.deleteOnExit();
+        IndexedArchiveReader.getIndexFile(src).deleteOnExit();
+        return outputDir;
+    }
+
+    private static void finishExport(JFrame parent, Future<File> task, boolean destroyOnFinish,
+                                     CompletableFuture<File> export) {
+        final File outputDir;
+        try {
+            outputDir = task.get();
+        } catch (CancellationException ex) {
+            // Pages written so far stay, a later export into the same directory rewrites them
+            Core.info(TAG, "Export canceled.");
+            export.complete(null);
+            return;
+        } catch (InterruptedException | ExecutionException ex) {
+            // Done, get() does not block
+            Core.fatal(TAG, "Failed to export archive", ex.getCause() != null ? ex.getCause() : ex);
+            export.completeExceptionally(ex);
+            return;
+        }
+
+        // Notify success
+        Object[] options = {"Open Directory", "Close"};
+        int result = JOptionPane.showOptionDialog(
+                parent,
+                "Archive exported successfully.",
+                "Export Finished",
+                JOptionPane.DEFAULT_OPTION,
+                JOptionPane.INFORMATION_MESSAGE,
+                null,
+                options,
+                options[1]
+        );
+        if (result == 0) {
             try {
-                fxTask.get();
-            } catch (Exception ex) {
-                Core.error(TAG, "Error while waiting on FX export task", ex);
+                Desktop.getDesktop().open(outputDir);
+            } catch (IOException e) {
+                Core.error(TAG, "Failed to open output directory", e);
             }
         }
+        // Destroy frame
+        if (parent != null && destroyOnFinish)
+            parent.dispatchEvent(new WindowEvent(parent, WindowEvent.WINDOW_CLOSING));
+        export.complete(outputDir);
+    }
+
+    private static void copyJSON(File src, File dst, boolean compress) throws IOException {
+        if (BinaryArchiveReader.isBinaryArchive(src)) {
+            try (BinaryArchiveReader reader = BinaryArchiveReader.open(src);
+                 OutputStream out = compress
+                         ? new GZIPOutputStream(new FileOutputStream(dst), COPY_BUFFER_SIZE)
+                         : new BufferedOutputStream(new FileOutputStream(dst), COPY_BUFFER_SIZE)) {
+                reader.writeNDJSON(out);
+            }
+            return;
+        }
+        // Only gzip is copied as is into a .json.gz, zlib sources are re-encoded
+        final ParserDispatcher.Compression compression = ParserDispatcher.detectCompression(src);
+        if (compression == (compress ? ParserDispatcher.Compression.GZIP : ParserDispatcher.Compression.NONE)) {
+            Files.copy(src.toPath(), dst.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            return;
+        }
+        try (InputStream in = ParserDispatcher.openStream(src);
+             OutputStream out = compress
+                     ? new GZIPOutputStream(new FileOutputStream(dst), COPY_BUFFER_SIZE)
+                     : new BufferedOutputStream(new FileOutputStream(dst), COPY_BUFFER_SIZE)) {
+            in.transferTo(out);
+        }
+    }
+
+    @FunctionalInterface
+    private interface ArchiveWriteTask {
+        File write(File dst, ArchiveFormat format, Pagination pagination, ExportProgress progress) throws IOException;
     }
 
     public static void main(String[] args) throws IOException {
@@ -401,6 +525,9 @@ public class Core {
         // Initialize python server
         PythonServer.initialize();
 
+        // Parse export templates ahead of the first export
+        scheduledExecutor.execute(HTMLWriter::warmUpTemplates);
+
         Core.info(TAG, "Session began on " + DateUtils.date());
 
         ////////////////////////////////////////////////////////////////////////////////////////////////////
@@ -455,6 +582,13 @@ public class Core {
         return FILE_CHOOSER.showSaveDialog(null);
     }
 
+    public static File chooseDirectory(String title) {
+        final DirectoryChooser chooser = new DirectoryChooser();
+        chooser.setTitle(title);
+        chooser.setInitialDirectory(new File(System.getProperty("user.home")));
+        return chooser.showDialog(null);
+    }
+
     private static void initializeLogSystem() throws IOException {
         final Stream<Path> files = Files.list(FileTree.getLogPath());
         files.filter(Files::isRegularFile)
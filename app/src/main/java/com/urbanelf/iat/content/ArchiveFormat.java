@@ -23,7 +23,10 @@ import javafx.stage.FileChooser;
 
 public enum ArchiveFormat {
     HTML(new FileChooser.ExtensionFilter("HTML files", "*.html"), "html", true),
-    JSON(new FileChooser.ExtensionFilter("JSON files", "*.json"), "json");
+    HTML_ZIP(new FileChooser.ExtensionFilter("Zipped HTML archives", "*.zip"), "zip"),
+    JSON(new FileChooser.ExtensionFilter("JSON files", "*.json"), "json"),
+    JSON_GZIP(new FileChooser.ExtensionFilter("Compressed JSON files", "*.json.gz"), "json.gz"),
+    BINARY(new FileChooser.ExtensionFilter("IAT binary archives", "*.iab"), "iab");
 
     private final FileChooser.ExtensionFilter extensionFilter;
     private final String extension;
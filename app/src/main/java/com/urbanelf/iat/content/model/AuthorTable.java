@@ -0,0 +1,97 @@
+/*
+ * This file is part of Invision Archive Tools (IAT).
+ *
+ * Copyright (C) 2025 Mark Fisher
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see https://www.gnu.org/licenses/.
+ */
+
+package com.urbanelf.iat.content.model;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Author symbol table, populated from the header's user data and extended at parse time.
+ * Posts refer to their author by id, which indexes {@link #getUserDataArray()}.
+ * <p>
+ * Thread-safe: pages may be decoded concurrently.
+ */
+public class AuthorTable {
+    private final ConcurrentHashMap<String, Integer> ids;
+    // Copy-on-write, registering an author is rare once the header is loaded
+    private volatile String[] names;
+    private volatile UserData[] userData;
+    private final int knownCount;
+
+    public AuthorTable(Map<String, UserData> userData) {
+        this.ids = new ConcurrentHashMap<>();
+        this.names = new String[0];
+        this.userData = new UserData[0];
+        userData.forEach(this::register);
+        this.knownCount = names.length;
+    }
+
+    public int intern(String name) {
+        final Integer id = ids.get(name);
+        if (id != null)
+            return id;
+        // Author absent from user data, use a placeholder so lookups never yield null
+        return register(name, UserData.unknown());
+    }
+
+    private synchronized int register(String name, UserData data) {
+        final Integer existing = ids.get(name);
+        if (existing != null)
+            return existing;
+        final int id = names.length;
+        final String[] names = Arrays.copyOf(this.names, id + 1);
+        final UserData[] userData = Arrays.copyOf(this.userData, id + 1);
+        names[id] = name;
+        userData[id] = data;
+        this.userData = userData;
+        this.names = names;
+        ids.put(name, id);
+        return id;
+    }
+
+    public String getName(int id) {
+        return names[id];
+    }
+
+    public UserData getUserData(int id) {
+        return userData[id];
+    }
+
+    /**
+     * @return User data indexed by author id (a snapshot, authors registered later are not included)
+     */
+    public UserData[] getUserDataArray() {
+        return userData;
+    }
+
+    /**
+     * @return Authors that posted but were missing from the header's user data
+     */
+    public List<String> getUnknownAuthors() {
+        final String[] names = this.names;
+        return Arrays.asList(names).subList(knownCount, names.length);
+    }
+
+    public int size() {
+        return names.length;
+    }
+}
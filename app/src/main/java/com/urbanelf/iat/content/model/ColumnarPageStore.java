@@ -0,0 +1,176 @@
+/*
+ * This file is part of Invision Archive Tools (IAT).
+ *
+ * Copyright (C) 2025 Mark Fisher
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see https://www.gnu.org/licenses/.
+ */
+
+package com.urbanelf.iat.content.model;
+
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.RandomAccess;
+
+/**
+ * Page list packing every post into a handful of primitive arrays and UTF-8 byte slabs
+ * rather than one {@link Post} (plus three {@link String}s) per post.
+ * <p>
+ * Pages and posts returned by {@link #get(int)} are lightweight views created on access;
+ * their text fields are decoded from the slabs each time a getter is called.
+ * Appending is not thread-safe, reading a fully built store is.
+ */
+public class ColumnarPageStore extends AbstractList<List<? extends Post>> implements RandomAccess {
+    private static final int SLAB_SIZE = 1024 * 1024;
+    private static final int INITIAL_POSTS = 1024;
+    private static final int INITIAL_PAGES = 64;
+
+    private final AuthorTable authors;
+
+    // Text of each post is stored contiguously: datetime, link, content
+    private final ArrayList<byte[]> slabs = new ArrayList<>();
+    private int slabPosition;
+
+    // Per post columns
+    private int[] authorIds = new int[INITIAL_POSTS];
+    private int[] slabIndices = new int[INITIAL_POSTS];
+    private int[] slabOffsets = new int[INITIAL_POSTS];
+    private int[] dateTimeLengths = new int[INITIAL_POSTS];
+    private int[] linkLengths = new int[INITIAL_POSTS];
+    private int[] contentLengths = new int[INITIAL_POSTS];
+    private int postCount;
+
+    // Index of the first post of each page (pageStarts[pageCount] == postCount)
+    private int[] pageStarts = new int[INITIAL_PAGES + 1];
+    private int pageCount;
+
+    public ColumnarPageStore(AuthorTable authors) {
+        this.authors = authors;
+    }
+
+    @Override
+    public boolean add(List<? extends Post> page) {
+        for (Post post : page)
+            addPost(post);
+        if (pageCount + 1 == pageStarts.length)
+            pageStarts = Arrays.copyOf(pageStarts, pageStarts.length * 2);
+        pageStarts[++pageCount] = postCount;
+        modCount++;
+        return true;
+    }
+
+    private void addPost(Post post) {
+        if (postCount == authorIds.length) {
+            final int capacity = authorIds.length * 2;
+            authorIds = Arrays.copyOf(authorIds, capacity);
+            slabIndices = Arrays.copyOf(slabIndices, capacity);
+            slabOffsets = Arrays.copyOf(slabOffsets, capacity);
+            dateTimeLengths = Arrays.copyOf(dateTimeLengths, capacity);
+            linkLengths = Arrays.copyOf(linkLengths, capacity);
+            contentLengths = Arrays.copyOf(contentLengths, capacity);
+        }
+
+        final byte[] dateTime = post.getDateTime().getBytes(StandardCharsets.UTF_8);
+        final byte[] link = post.getLink().getBytes(StandardCharsets.UTF_8);
+        final byte[] content = post.getContent().getBytes(StandardCharsets.UTF_8);
+        final int length = dateTime.length + link.length + content.length;
+
+        // Records never straddle slabs; oversized posts get a slab of their own
+        if (slabs.isEmpty() || slabPosition + length > slabs.get(slabs.size() - 1).length) {
+            slabs.add(new byte[Math.max(SLAB_SIZE, length)]);
+            slabPosition = 0;
+        }
+        final byte[] slab = slabs.get(slabs.size() - 1);
+        System.arraycopy(dateTime, 0, slab, slabPosition, dateTime.length);
+        System.arraycopy(link, 0, slab, slabPosition + dateTime.length, link.length);
+        System.arraycopy(content, 0, slab, slabPosition + dateTime.length + link.length, content.length);
+
+        authorIds[postCount] = post.getAuthorId();
+        slabIndices[postCount] = slabs.size() - 1;
+        slabOffsets[postCount] = slabPosition;
+        dateTimeLengths[postCount] = dateTime.length;
+        linkLengths[postCount] = link.length;
+        contentLengths[postCount] = content.length;
+        postCount++;
+        slabPosition += length;
+    }
+
+    @Override
+    public List<? extends Post> get(int index) {
+        Objects.checkIndex(index, pageCount);
+        return new PageView(pageStarts[index], pageStarts[index + 1]);
+    }
+
+    @Override
+    public int size() {
+        return pageCount;
+    }
+
+    public int getPostCount() {
+        return postCount;
+    }
+
+    private String decode(int post, int offset, int length) {
+        return new String(slabs.get(slabIndices[post]), slabOffsets[post] + offset, length, StandardCharsets.UTF_8);
+    }
+
+    private class PageView extends AbstractList<Post> implements RandomAccess {
+        private final int start;
+        private final int end;
+
+        private PageView(int start, int end) {
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        public Post get(int index) {
+            Objects.checkIndex(index, end - start);
+            return new PostView(start + index);
+        }
+
+        @Override
+        public int size() {
+            return end - start;
+        }
+    }
+
+    private class PostView extends Post {
+        private final int index;
+
+        private PostView(int index) {
+            super(authors.getName(authorIds[index]), authorIds[index]);
+            this.index = index;
+        }
+
+        @Override
+        public String getDateTime() {
+            return decode(index, 0, dateTimeLengths[index]);
+        }
+
+        @Override
+        public String getLink() {
+            return decode(index, dateTimeLengths[index], linkLengths[index]);
+        }
+
+        @Override
+        public String getContent() {
+            return decode(index, dateTimeLengths[index] + linkLengths[index], contentLengths[index]);
+        }
+    }
+}
@@ -22,22 +22,54 @@ package com.urbanelf.iat.content.model;
 import org.json.JSONObject;
 
 public class Post {
+    public static final String AUTHOR = "author";
+    public static final String DATETIME = "datetime";
+    public static final String LINK = "link";
+    public static final String CONTENT = "content";
+
     private final String author;
+    private final int authorId;
     private final String dateTime;
     private final String link;
     private final String content;
 
-    public Post(JSONObject jsonObject) {
-        this.author = jsonObject.getString("author");
-        this.dateTime = jsonObject.getString("datetime");
-        this.link = jsonObject.getString("link");
-        this.content = jsonObject.getString("content");
+    public Post(JSONObject jsonObject, AuthorTable authors) {
+        this(authors,
+                jsonObject.getString(AUTHOR),
+                jsonObject.getString(DATETIME),
+                jsonObject.getString(LINK),
+                jsonObject.getString(CONTENT));
+    }
+
+    public Post(AuthorTable authors, String author, String dateTime, String link, String content) {
+        this.authorId = authors.intern(author);
+        // Shared instance
+        this.author = authors.getName(authorId);
+        this.dateTime = dateTime;
+        this.link = link;
+        this.content = content;
+    }
+
+    /**
+     * For views that decode their fields on access (see {@link ColumnarPageStore}),
+     * which must override {@link #getDateTime()}, {@link #getLink()} and {@link #getContent()}.
+     */
+    protected Post(String author, int authorId) {
+        this.author = author;
+        this.authorId = authorId;
+        this.dateTime = null;
+        this.link = null;
+        this.content = null;
     }
 
     public String getAuthor() {
         return author;
     }
 
+    public int getAuthorId() {
+        return authorId;
+    }
+
     public String getDateTime() {
         return dateTime;
     }
@@ -23,13 +23,15 @@ import org.json.JSONObject;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 
 public class PostContent implements Content {
     public static final String HEADER_USER_DATA = "user_data";
 
     private final String title;
     private final HashMap<String, UserData> userData;
-    private final ArrayList<ArrayList<? extends Post>> pages;
+    private final AuthorTable authors;
+    private List<List<? extends Post>> pages;
 
     public PostContent(JSONObject header) {
         this.title = header.getString(HEADER_TITLE);
@@ -39,6 +41,7 @@ public class PostContent implements Content {
         userDataObject.keys().forEachRemaining(
                 key -> userData.put(key,
                         new UserData(userDataObject.getJSONObject(key))));
+        this.authors = new AuthorTable(userData);
         // Pages are populated by the NDJSON Parser
         this.pages = new ArrayList<>();
     }
@@ -46,6 +49,7 @@ public class PostContent implements Content {
     public PostContent(PostContent content) {
         this.title = content.title;
         this.userData = content.userData;
+        this.authors = content.authors;
         this.pages = content.pages;
     }
 
@@ -58,7 +62,22 @@ public class PostContent implements Content {
         return userData;
     }
 
-    public ArrayList<ArrayList<? extends Post>> getPages() {
+    public AuthorTable getAuthors() {
+        return authors;
+    }
+
+    public List<List<? extends Post>> getPages() {
         return pages;
     }
+
+    /**
+     * Backs this content with a {@link ColumnarPageStore}; pages added afterwards are packed
+     * instead of kept as {@link Post} objects. Must be called before any page is added.
+     */
+    public void useColumnarPages() {
+        if (!pages.isEmpty())
+            throw new IllegalStateException("Pages have already been added");
+        if (!(pages instanceof ColumnarPageStore))
+            pages = new ColumnarPageStore(authors);
+    }
 }
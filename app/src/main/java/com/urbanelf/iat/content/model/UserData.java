@@ -28,10 +28,24 @@ public class UserData {
     private final String groupIconUrl;
 
     public UserData(JSONObject jsonObject) {
-        this.profileUrl = jsonObject.getString("profile_url");
-        this.avatarUrl = jsonObject.getString("avatar_url");
-        this.group = jsonObject.getString("group");
-        this.groupIconUrl = jsonObject.getString("group_icon_url");
+        this(jsonObject.getString("profile_url"),
+                jsonObject.getString("avatar_url"),
+                jsonObject.getString("group"),
+                jsonObject.getString("group_icon_url"));
+    }
+
+    public UserData(String profileUrl, String avatarUrl, String group, String groupIconUrl) {
+        this.profileUrl = profileUrl;
+        this.avatarUrl = avatarUrl;
+        this.group = group;
+        this.groupIconUrl = groupIconUrl;
+    }
+
+    /**
+     * @return Placeholder for authors absent from the archive's user data
+     */
+    public static UserData unknown() {
+        return new UserData("", "", "", "");
     }
 
     public String getProfileUrl() {
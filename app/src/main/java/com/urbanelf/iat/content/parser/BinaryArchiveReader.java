@@ -0,0 +1,257 @@
+/*
+ * This file is part of Invision Archive Tools (IAT).
+ *
+ * Copyright (C) 2025 Mark Fisher
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see https://www.gnu.org/licenses/.
+ */
+
+package com.urbanelf.iat.content.parser;
+
+import com.urbanelf.iat.content.model.AuthorTable;
+import com.urbanelf.iat.content.model.Content;
+import com.urbanelf.iat.content.model.Post;
+import com.urbanelf.iat.content.model.PostContent;
+import com.urbanelf.iat.proto.constants.ContentType;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.BufferedWriter;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+
+/**
+ * Random access reader for archives written by {@link com.urbanelf.iat.content.writer.BinaryWriter}.
+ * <p>
+ * Layout (big-endian, strings are an int byte length followed by UTF-8):
+ * <pre>
+ * int     magic, version
+ * string  header (the NDJSON header line)
+ * pages   per page: int post count, then per post: int author, string datetime, link, content
+ * table   int count, string author name (indexed by the per post author)
+ * long[]  page directory: offset of each page, then the offset of the string table
+ * trailer long string table offset, long directory offset, int page count, int magic
+ * </pre>
+ * Any page can be read without touching the others. Safe for concurrent {@link #readPage(int)} calls.
+ */
+public class BinaryArchiveReader implements PageSource {
+    public static final int MAGIC = 0x49415442; // "IATB"
+    public static final int VERSION = 1;
+    public static final int TRAILER_BYTES = 8 + 8 + 4 + 4;
+
+    private final File file;
+    private final FileChannel channel;
+    private final long[] directory;
+    private final String[] authorNames;
+    private final String headerLine;
+
+    private final ContentType type;
+    private final Content content;
+
+    private BinaryArchiveReader(File file, FileChannel channel) throws IOException, JSONException {
+        this.file = file;
+        this.channel = channel;
+
+        final long size = channel.size();
+        if (size < 12 + TRAILER_BYTES)
+            throw corrupt("truncated");
+        final ByteBuffer prefix = read(0, 12);
+        if (prefix.getInt() != MAGIC)
+            throw new IOException("'" + file.getName() + "' is not a binary archive");
+        final int version = prefix.getInt();
+        if (version != VERSION)
+            throw new IOException("Unsupported binary archive version " + version);
+        final int headerLength = prefix.getInt();
+
+        final ByteBuffer trailer = read(size - TRAILER_BYTES, TRAILER_BYTES);
+        final long tableOffset = trailer.getLong();
+        final long directoryOffset = trailer.getLong();
+        final int pageCount = trailer.getInt();
+        if (trailer.getInt() != MAGIC || tableOffset < 12 + headerLength || directoryOffset < tableOffset
+                || pageCount < 0 || directoryOffset + (pageCount + 1L) * 8 + TRAILER_BYTES != size)
+            throw corrupt("bad trailer");
+
+        // Page directory
+        final ByteBuffer directoryBuffer = read(directoryOffset, (pageCount + 1) * 8);
+        this.directory = new long[pageCount + 1];
+        for (int i = 0; i <= pageCount; i++)
+            directory[i] = directoryBuffer.getLong();
+
+        // String table
+        final ByteBuffer table = read(tableOffset, (int) (directoryOffset - tableOffset));
+        this.authorNames = new String[table.getInt()];
+        for (int i = 0; i < authorNames.length; i++)
+            authorNames[i] = readString(table);
+
+        // Parse header
+        this.headerLine = readString(read(8, 4 + headerLength));
+        final JSONObject header = new JSONObject(headerLine);
+        this.type = header.getEnum(ContentType.class, Content.HEADER_TYPE);
+        this.content = type.getParser().parseHeader(header);
+    }
+
+    public static BinaryArchiveReader open(File file) throws IOException, JSONException {
+        final FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        try {
+            return new BinaryArchiveReader(file, channel);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * @return Whether {@code file} starts with the binary archive magic
+     */
+    public static boolean isBinaryArchive(File file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            final ByteBuffer magic = ByteBuffer.allocate(4);
+            while (magic.hasRemaining()) {
+                if (channel.read(magic) == -1)
+                    return false;
+            }
+            return magic.getInt(0) == MAGIC;
+        }
+    }
+
+    private ByteBuffer read(long position, int length) throws IOException {
+        final ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) == -1)
+                throw new EOFException("Unexpected end of binary archive '" + file.getName() + "'");
+        }
+        return buffer.flip();
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        final int length = buffer.getInt();
+        final String value = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length,
+                StandardCharsets.UTF_8);
+        buffer.position(buffer.position() + length);
+        return value;
+    }
+
+    private IOException corrupt(String reason) {
+        return new IOException("Corrupt binary archive '" + file.getName() + "' (" + reason + ")");
+    }
+
+    public ArrayList<Post> readPage(int page) throws IOException {
+        return readPage(page, ((PostContent) content).getAuthors());
+    }
+
+    @Override
+    public ArrayList<Post> readPage(int page, AuthorTable authors) throws IOException {
+        if (page < 0 || page >= getPageCount())
+            throw new IndexOutOfBoundsException("Page " + page + " out of bounds for " + getPageCount() + " pages");
+        final ByteBuffer block = read(directory[page], (int) (directory[page + 1] - directory[page]));
+        try {
+            final int postCount = block.getInt();
+            final ArrayList<Post> posts = new ArrayList<>(postCount);
+            for (int i = 0; i < postCount; i++) {
+                final String author = authorNames[block.getInt()];
+                posts.add(new Post(authors, author, readString(block), readString(block), readString(block)));
+            }
+            return posts;
+        } catch (RuntimeException e) {
+            // Buffer under/overflow, bad author index...
+            throw corrupt("page " + page + ": " + e);
+        }
+    }
+
+    /**
+     * Converts this archive back to NDJSON (the format read by {@link ParserDispatcher}).
+     * Non-ASCII characters are escaped, as in archives written by the server.
+     */
+    public void writeNDJSON(File dst) throws IOException {
+        try (OutputStream out = new FileOutputStream(dst)) {
+            writeNDJSON(out);
+        }
+    }
+
+    /**
+     * Same as {@link #writeNDJSON(File)}, {@code out} is flushed but not closed.
+     */
+    public void writeNDJSON(OutputStream out) throws IOException {
+        final BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writer.write(headerLine);
+        writer.write('\n');
+        for (int i = 0; i < getPageCount(); i++) {
+            writer.write("{\"" + Content.PAGE_CONTENT + "\":[");
+            final ArrayList<Post> page = readPage(i);
+            for (int j = 0; j < page.size(); j++) {
+                final Post post = page.get(j);
+                if (j > 0)
+                    writer.write(',');
+                writer.write("{\"" + Post.AUTHOR + "\":" + quote(post.getAuthor())
+                        + ",\"" + Post.DATETIME + "\":" + quote(post.getDateTime())
+                        + ",\"" + Post.LINK + "\":" + quote(post.getLink())
+                        + ",\"" + Post.CONTENT + "\":" + quote(post.getContent()) + '}');
+            }
+            writer.write("]}\n");
+        }
+        writer.flush();
+    }
+
+    private static String quote(String value) {
+        final String quoted = JSONObject.quote(value);
+        StringBuilder builder = null;
+        for (int i = 0; i < quoted.length(); i++) {
+            final char c = quoted.charAt(i);
+            if (c < 0x80) {
+                if (builder != null)
+                    builder.append(c);
+            } else {
+                if (builder == null)
+                    builder = new StringBuilder(quoted.length() + 16).append(quoted, 0, i);
+                builder.append(String.format("\\u%04x", (int) c));
+            }
+        }
+        return builder == null ? quoted : builder.toString();
+    }
+
+    @Override
+    public int getPageCount() {
+        return directory.length - 1;
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    public ContentType getType() {
+        return type;
+    }
+
+    /**
+     * @return Header-only content (pages are read through {@link #readPage(int)})
+     */
+    public Content getContent() {
+        return content;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
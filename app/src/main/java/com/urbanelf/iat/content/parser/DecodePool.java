@@ -0,0 +1,77 @@
+/*
+ * This file is part of Invision Archive Tools (IAT).
+ *
+ * Copyright (C) 2025 Mark Fisher
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see https://www.gnu.org/licenses/.
+ */
+
+package com.urbanelf.iat.content.parser;
+
+import com.urbanelf.iat.content.model.Post;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Threads shared by every parallel page decode ({@link PageCursor}, used by {@link PullPostParser}
+ * and streamed exports), so concurrent parses and exports do not each start a pool of their own.
+ */
+final class DecodePool {
+    static final int THREADS = Runtime.getRuntime().availableProcessors();
+
+    // Pages queued per decoding thread (bounds the number of raw pages held at once)
+    static final int PAGES_PER_THREAD = 4;
+
+    private static final ExecutorService EXECUTOR;
+
+    static {
+        final AtomicInteger threadNumber = new AtomicInteger();
+        EXECUTOR = Executors.newFixedThreadPool(THREADS, runnable -> {
+            final Thread thread = new Thread(runnable, "decode-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    private DecodePool() {
+    }
+
+    static Future<ArrayList<Post>> submit(Callable<ArrayList<Post>> page) {
+        return EXECUTOR.submit(page);
+    }
+
+    static ArrayList<Post> await(Future<ArrayList<Post>> page) throws IOException {
+        try {
+            return page.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while decoding pages");
+        } catch (ExecutionException e) {
+            // Rethrow as the serial path would (e.g. JSONException)
+            if (e.getCause() instanceof RuntimeException runtimeException)
+                throw runtimeException;
+            if (e.getCause() instanceof IOException ioException)
+                throw ioException;
+            throw new IOException(e.getCause());
+        }
+    }
+}
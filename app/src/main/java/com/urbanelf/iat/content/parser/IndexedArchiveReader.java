@@ -0,0 +1,231 @@
+/*
+ * This file is part of Invision Archive Tools (IAT).
+ *
+ * Copyright (C) 2025 Mark Fisher
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see https://www.gnu.org/licenses/.
+ */
+
+package com.urbanelf.iat.content.parser;
+
+import com.urbanelf.iat.Core;
+import com.urbanelf.iat.content.model.AuthorTable;
+import com.urbanelf.iat.content.model.Content;
+import com.urbanelf.iat.content.model.Post;
+import com.urbanelf.iat.content.model.PostContent;
+import com.urbanelf.iat.proto.constants.ContentType;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+
+/**
+ * Random access to the pages of an NDJSON archive.
+ * <p>
+ * The byte range of every line is persisted to a sidecar index ({@code <archive>.idx}) the first
+ * time the archive is opened. Subsequent opens only load the index, so opening the archive and
+ * seeking to any page are both O(1).
+ * <p>
+ * Pages are read with positional reads and may be read concurrently. Neither file is
+ * memory-mapped: a mapping outlives {@link #close()} until it is garbage collected, and Windows
+ * refuses to delete a mapped file, which would break deleting a recovered archive right after
+ * it was read.
+ */
+public class IndexedArchiveReader implements PageSource {
+    private static final String TAG = IndexedArchiveReader.class.getSimpleName();
+
+    public static final String INDEX_EXTENSION = ".idx";
+
+    // Index layout: magic, version, archive length, archive mtime, line count, then one
+    // (offset, length) record per line (line 0 is the header)
+    private static final int INDEX_MAGIC = 0x49415449; // "IATI"
+    private static final int INDEX_VERSION = 1;
+    private static final int INDEX_HEADER_BYTES = 4 + 4 + 8 + 8 + 4;
+    private static final int INDEX_RECORD_BYTES = 8 + 4;
+
+    private static final int SCAN_BUFFER_SIZE = 1 << 16;
+
+    private final File file;
+    private final FileChannel channel;
+    private final ByteBuffer index;
+    private final int lineCount;
+
+    private final ContentType type;
+    private final Content content;
+
+    private IndexedArchiveReader(File file, FileChannel channel, ByteBuffer index) throws IOException, JSONException {
+        this.file = file;
+        this.channel = channel;
+        this.index = index;
+        this.lineCount = index.getInt(INDEX_HEADER_BYTES - 4);
+        if (lineCount == 0)
+            throw new JSONException("Archive '" + file.getName() + "' has no header");
+        // Parse header
+        final JSONObject header = new JSONObject(readLine(0));
+        this.type = header.getEnum(ContentType.class, Content.HEADER_TYPE);
+        this.content = type.getParser().parseHeader(header);
+    }
+
+    public static IndexedArchiveReader open(File file) throws IOException, JSONException {
+        // Lines are addressed by byte offset, which compressed archives do not have
+        if (ParserDispatcher.detectCompression(file) != ParserDispatcher.Compression.NONE)
+            throw new IOException("Compressed archive '" + file.getName() + "' cannot be indexed");
+        final FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        try {
+            final long size = channel.size();
+            final File indexFile = getIndexFile(file);
+            ByteBuffer index = loadIndex(indexFile, size, file.lastModified());
+            if (index == null) {
+                index = buildIndex(channel, size, file.lastModified());
+                try {
+                    Files.write(indexFile.toPath(), index.array());
+                } catch (IOException e) {
+                    // Still usable, the index is rebuilt on the next open
+                    Core.warning(TAG, "Failed to write page index '" + indexFile.getName() + "': " + e.getMessage());
+                }
+            }
+            return new IndexedArchiveReader(file, channel, index);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    public static File getIndexFile(File file) {
+        return new File(file.getParentFile(), file.getName() + INDEX_EXTENSION);
+    }
+
+    public static void deleteIndex(File file) throws IOException {
+        Files.deleteIfExists(getIndexFile(file).toPath());
+    }
+
+    private static ByteBuffer loadIndex(File indexFile, long size, long lastModified) throws IOException {
+        if (!indexFile.isFile() || indexFile.length() < INDEX_HEADER_BYTES)
+            return null;
+        // Read onto the heap (12 bytes per page), so the index file is not held open
+        final ByteBuffer index = ByteBuffer.wrap(Files.readAllBytes(indexFile.toPath()));
+        // Stale or foreign index
+        if (index.getInt(0) != INDEX_MAGIC
+                || index.getInt(4) != INDEX_VERSION
+                || index.getLong(8) != size
+                || index.getLong(16) != lastModified
+                || index.capacity() != INDEX_HEADER_BYTES + (long) index.getInt(24) * INDEX_RECORD_BYTES)
+            return null;
+        return index;
+    }
+
+    private static ByteBuffer buildIndex(FileChannel channel, long size, long lastModified) throws IOException {
+        final ArrayList<long[]> lines = new ArrayList<>();
+        final ByteBuffer buffer = ByteBuffer.allocate(SCAN_BUFFER_SIZE);
+        final byte[] bytes = buffer.array();
+        long lineStart = 0;
+        long position = 0;
+        while (position < size) {
+            buffer.clear();
+            final int read = channel.read(buffer, position);
+            if (read < 0)
+                break;
+            for (int i = 0; i < read; i++) {
+                if (bytes[i] == '\n') {
+                    final long lineEnd = position + i;
+                    lines.add(new long[] {lineStart, lineEnd - lineStart});
+                    lineStart = lineEnd + 1;
+                }
+            }
+            position += read;
+        }
+        // Unterminated last line
+        if (lineStart < size)
+            lines.add(new long[] {lineStart, size - lineStart});
+
+        final ByteBuffer index = ByteBuffer.allocate(INDEX_HEADER_BYTES + lines.size() * INDEX_RECORD_BYTES);
+        index.putInt(INDEX_MAGIC)
+                .putInt(INDEX_VERSION)
+                .putLong(size)
+                .putLong(lastModified)
+                .putInt(lines.size());
+        for (long[] line : lines) {
+            if (line[1] > Integer.MAX_VALUE)
+                throw new IOException("Page at offset " + line[0] + " is too large to index");
+            index.putLong(line[0]).putInt((int) line[1]);
+        }
+        return index;
+    }
+
+    private String readLine(int line) throws IOException {
+        final int record = INDEX_HEADER_BYTES + line * INDEX_RECORD_BYTES;
+        final long position = index.getLong(record);
+        int length = index.getInt(record + 8);
+
+        final ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0)
+                throw new EOFException("Archive '" + file.getName() + "' is shorter than its index");
+        }
+        final byte[] bytes = buffer.array();
+        // Archives written on Windows use CRLF
+        if (length > 0 && bytes[length - 1] == '\r')
+            length--;
+        return new String(bytes, 0, length, StandardCharsets.UTF_8);
+    }
+
+    public String readPageLine(int page) throws IOException {
+        if (page < 0 || page >= getPageCount())
+            throw new IndexOutOfBoundsException("Page " + page + " out of bounds for " + getPageCount() + " pages");
+        return readLine(page + 1);
+    }
+
+    public ArrayList<Post> readPage(int page) throws IOException, JSONException {
+        return readPage(page, ((PostContent) content).getAuthors());
+    }
+
+    @Override
+    public ArrayList<Post> readPage(int page, AuthorTable authors) throws IOException, JSONException {
+        return PullPostParser.parsePage(readPageLine(page), authors);
+    }
+
+    @Override
+    public int getPageCount() {
+        return lineCount - 1;
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    public ContentType getType() {
+        return type;
+    }
+
+    /**
+     * @return Header-only content (pages are read through {@link #readPage(int)})
+     */
+    public Content getContent() {
+        return content;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,349 @@
+/*
+ * This file is part of Invision Archive Tools (IAT).
+ *
+ * Copyright (C) 2025 Mark Fisher
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see https://www.gnu.org/licenses/.
+ */
+
+package com.urbanelf.iat.content.parser;
+
+import org.json.JSONException;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Arrays;
+
+/**
+ * Minimal pull tokenizer for JSON (and NDJSON: consecutive top-level values are permitted).
+ * Values are read straight from the character stream, no intermediate object tree is built.
+ */
+public class JSONPullReader {
+    public enum Token {
+        BEGIN_OBJECT,
+        END_OBJECT,
+        BEGIN_ARRAY,
+        END_ARRAY,
+        NAME,
+        STRING,
+        NUMBER,
+        BOOLEAN,
+        NULL,
+        END_DOCUMENT
+    }
+
+    // Scopes
+    private static final int DOCUMENT = 0;
+    private static final int EMPTY_ARRAY = 1;
+    private static final int NONEMPTY_ARRAY = 2;
+    private static final int EMPTY_OBJECT = 3;
+    private static final int NONEMPTY_OBJECT = 4;
+    private static final int DANGLING_NAME = 5;
+
+    private final Reader in;
+    private final char[] buffer = new char[8192];
+    private int pos;
+    private int limit;
+    private long consumed;
+
+    private int[] stack = new int[16];
+    private int stackSize;
+
+    private final StringBuilder builder = new StringBuilder();
+    private Token peeked;
+
+    public JSONPullReader(Reader in) {
+        this.in = in;
+        stack[stackSize++] = DOCUMENT;
+    }
+
+    public Token peek() throws IOException {
+        if (peeked != null)
+            return peeked;
+
+        final int scope = stack[stackSize - 1];
+        int c = nextNonWhitespace();
+        switch (scope) {
+            case EMPTY_ARRAY, NONEMPTY_ARRAY -> {
+                if (c == ']') {
+                    pos++;
+                    return peeked = Token.END_ARRAY;
+                }
+                if (scope == NONEMPTY_ARRAY) {
+                    if (c != ',')
+                        throw syntaxError("Expected ',' or ']'");
+                    pos++;
+                    c = nextNonWhitespace();
+                } else {
+                    stack[stackSize - 1] = NONEMPTY_ARRAY;
+                }
+            }
+            case EMPTY_OBJECT, NONEMPTY_OBJECT -> {
+                if (c == '}') {
+                    pos++;
+                    return peeked = Token.END_OBJECT;
+                }
+                if (scope == NONEMPTY_OBJECT) {
+                    if (c != ',')
+                        throw syntaxError("Expected ',' or '}'");
+                    pos++;
+                    c = nextNonWhitespace();
+                }
+                if (c != '"')
+                    throw syntaxError("Expected a name");
+                pos++;
+                stack[stackSize - 1] = DANGLING_NAME;
+                return peeked = Token.NAME;
+            }
+            case DANGLING_NAME -> {
+                if (c != ':')
+                    throw syntaxError("Expected ':'");
+                pos++;
+                c = nextNonWhitespace();
+                stack[stackSize - 1] = NONEMPTY_OBJECT;
+            }
+            default -> {
+                if (c == -1)
+                    return peeked = Token.END_DOCUMENT;
+            }
+        }
+
+        // Value
+        switch (c) {
+            case '{' -> {
+                pos++;
+                return peeked = Token.BEGIN_OBJECT;
+            }
+            case '[' -> {
+                pos++;
+                return peeked = Token.BEGIN_ARRAY;
+            }
+            case '"' -> {
+                pos++;
+                return peeked = Token.STRING;
+            }
+            case 't', 'f' -> {
+                return peeked = Token.BOOLEAN;
+            }
+            case 'n' -> {
+                return peeked = Token.NULL;
+            }
+            case -1 -> throw syntaxError("Unexpected end of input");
+            default -> {
+                if (c == '-' || (c >= '0' && c <= '9'))
+                    return peeked = Token.NUMBER;
+                throw syntaxError("Unexpected character '" + (char) c + "'");
+            }
+        }
+    }
+
+    public boolean hasNext() throws IOException {
+        final Token token = peek();
+        return token != Token.END_OBJECT && token != Token.END_ARRAY && token != Token.END_DOCUMENT;
+    }
+
+    public void beginObject() throws IOException {
+        expect(Token.BEGIN_OBJECT);
+        push(EMPTY_OBJECT);
+    }
+
+    public void endObject() throws IOException {
+        expect(Token.END_OBJECT);
+        stackSize--;
+    }
+
+    public void beginArray() throws IOException {
+        expect(Token.BEGIN_ARRAY);
+        push(EMPTY_ARRAY);
+    }
+
+    public void endArray() throws IOException {
+        expect(Token.END_ARRAY);
+        stackSize--;
+    }
+
+    public String nextName() throws IOException {
+        expect(Token.NAME);
+        return readString();
+    }
+
+    public String nextString() throws IOException {
+        expect(Token.STRING);
+        return readString();
+    }
+
+    public boolean nextBoolean() throws IOException {
+        expect(Token.BOOLEAN);
+        final String literal = readLiteral();
+        if (literal.equals("true"))
+            return true;
+        if (literal.equals("false"))
+            return false;
+        throw syntaxError("Invalid literal '" + literal + "'");
+    }
+
+    public void nextNull() throws IOException {
+        expect(Token.NULL);
+        final String literal = readLiteral();
+        if (!literal.equals("null"))
+            throw syntaxError("Invalid literal '" + literal + "'");
+    }
+
+    /**
+     * @return The number exactly as written
+     */
+    public String nextNumber() throws IOException {
+        expect(Token.NUMBER);
+        return readLiteral();
+    }
+
+    public void skipValue() throws IOException {
+        int depth = 0;
+        do {
+            switch (peek()) {
+                case BEGIN_OBJECT -> {
+                    beginObject();
+                    depth++;
+                }
+                case BEGIN_ARRAY -> {
+                    beginArray();
+                    depth++;
+                }
+                case END_OBJECT -> {
+                    endObject();
+                    depth--;
+                }
+                case END_ARRAY -> {
+                    endArray();
+                    depth--;
+                }
+                case NAME -> nextName();
+                case STRING -> nextString();
+                case NUMBER, BOOLEAN, NULL -> {
+                    peeked = null;
+                    readLiteral();
+                }
+                case END_DOCUMENT -> throw syntaxError("Unexpected end of input");
+            }
+        } while (depth > 0);
+    }
+
+    public JSONException syntaxError(String message) {
+        return new JSONException(message + " at character " + (consumed + pos));
+    }
+
+    private void expect(Token token) throws IOException {
+        final Token actual = peek();
+        if (actual != token)
+            throw syntaxError("Expected " + token + " but was " + actual);
+        peeked = null;
+    }
+
+    private void push(int scope) {
+        if (stackSize == stack.length)
+            stack = Arrays.copyOf(stack, stackSize * 2);
+        stack[stackSize++] = scope;
+    }
+
+    private boolean fill() throws IOException {
+        consumed += pos;
+        pos = 0;
+        limit = 0;
+        int read;
+        while ((read = in.read(buffer, limit, buffer.length - limit)) == 0);
+        if (read == -1)
+            return false;
+        limit = read;
+        return true;
+    }
+
+    private int nextNonWhitespace() throws IOException {
+        while (true) {
+            if (pos == limit && !fill())
+                return -1;
+            final char c = buffer[pos];
+            if (c != ' ' && c != '\n' && c != '\r' && c != '\t')
+                return c;
+            pos++;
+        }
+    }
+
+    private String readString() throws IOException {
+        builder.setLength(0);
+        while (true) {
+            // Copy unescaped runs in bulk
+            int start = pos;
+            while (pos < limit) {
+                final char c = buffer[pos];
+                if (c == '"') {
+                    builder.append(buffer, start, pos - start);
+                    pos++;
+                    return builder.toString();
+                }
+                if (c == '\\') {
+                    builder.append(buffer, start, pos - start);
+                    pos++;
+                    builder.append(readEscape());
+                    start = pos;
+                    continue;
+                }
+                pos++;
+            }
+            builder.append(buffer, start, pos - start);
+            if (!fill())
+                throw syntaxError("Unterminated string");
+        }
+    }
+
+    private char readEscape() throws IOException {
+        if (pos == limit && !fill())
+            throw syntaxError("Unterminated escape sequence");
+        final char c = buffer[pos++];
+        return switch (c) {
+            case 'b' -> '\b';
+            case 'f' -> '\f';
+            case 'n' -> '\n';
+            case 'r' -> '\r';
+            case 't' -> '\t';
+            case 'u' -> {
+                int value = 0;
+                for (int i = 0; i < 4; i++) {
+                    if (pos == limit && !fill())
+                        throw syntaxError("Unterminated escape sequence");
+                    final int digit = Character.digit(buffer[pos++], 16);
+                    if (digit == -1)
+                        throw syntaxError("Invalid unicode escape");
+                    value = (value << 4) | digit;
+                }
+                yield (char) value;
+            }
+            case '"', '\\', '/' -> c;
+            default -> throw syntaxError("Invalid escape '\\" + c + "'");
+        };
+    }
+
+    private String readLiteral() throws IOException {
+        builder.setLength(0);
+        while (true) {
+            if (pos == limit && !fill())
+                break;
+            final char c = buffer[pos];
+            if (c == ',' || c == ':' || c == ']' || c == '}' || c == ' ' || c == '\n' || c == '\r' || c == '\t')
+                break;
+            builder.append(c);
+            pos++;
+        }
+        return builder.toString();
+    }
+}
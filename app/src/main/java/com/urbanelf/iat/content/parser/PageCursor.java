@@ -0,0 +1,157 @@
+/*
+ * This file is part of Invision Archive Tools (IAT).
+ *
+ * Copyright (C) 2025 Mark Fisher
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see https://www.gnu.org/licenses/.
+ */
+
+package com.urbanelf.iat.content.parser;
+
+import com.urbanelf.iat.content.model.AuthorTable;
+import com.urbanelf.iat.content.model.Post;
+
+import org.json.JSONException;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+
+/**
+ * Lazily decodes the pages of an archive, either one NDJSON line at a time or by seeking
+ * through a {@link PageSource}.
+ * <p>
+ * With a parallelism above 1, the next few pages are decoded ahead on the shared
+ * {@link DecodePool} and returned in file order. Only those and the page most recently
+ * returned by {@link #next()} are retained.
+ */
+public class PageCursor implements Iterator<ArrayList<Post>>, Closeable {
+    private final BufferedReader reader;
+    private final PageSource source;
+    private final AuthorTable authors;
+    private final int parallelism;
+    // Pages decoding ahead, in file order
+    private final ArrayDeque<Future<ArrayList<Post>>> pending = new ArrayDeque<>();
+    private String nextLine;
+    private boolean exhausted;
+    private int index;
+    private int page;
+
+    public PageCursor(BufferedReader reader, AuthorTable authors) {
+        this(reader, authors, 1);
+    }
+
+    /**
+     * @param parallelism Number of pages decoding concurrently (1 decodes on the calling thread)
+     */
+    public PageCursor(BufferedReader reader, AuthorTable authors, int parallelism) {
+        this.reader = reader;
+        this.source = null;
+        this.authors = authors;
+        this.parallelism = Math.max(1, parallelism);
+    }
+
+    /**
+     * Reads the pages of {@code source} starting at {@code firstPage}. The cursor takes ownership
+     * of (and closes) the source.
+     *
+     * @param parallelism Number of pages decoding concurrently (1 decodes on the calling thread)
+     */
+    public PageCursor(PageSource source, int firstPage, AuthorTable authors, int parallelism) {
+        this.reader = null;
+        this.source = source;
+        this.authors = authors;
+        this.parallelism = Math.max(1, parallelism);
+        this.page = firstPage;
+    }
+
+    @Override
+    public boolean hasNext() {
+        return !pending.isEmpty() || hasNextRaw();
+    }
+
+    private boolean hasNextRaw() {
+        if (source != null)
+            return page < source.getPageCount();
+        if (nextLine == null && !exhausted) {
+            try {
+                nextLine = reader.readLine();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            exhausted = nextLine == null;
+        }
+        return !exhausted;
+    }
+
+    /**
+     * Takes the next raw page (a line or a page number) and returns its decoding.
+     */
+    private PageTask nextRaw() {
+        if (source != null) {
+            final int sourcePage = page++;
+            return () -> source.readPage(sourcePage, authors);
+        }
+        final String line = nextLine;
+        nextLine = null;
+        return () -> PullPostParser.parsePage(line, authors);
+    }
+
+    @Override
+    public ArrayList<Post> next() throws JSONException {
+        if (!hasNext())
+            throw new NoSuchElementException();
+        index++;
+        try {
+            if (parallelism == 1)
+                return nextRaw().call();
+            while (pending.size() < parallelism * DecodePool.PAGES_PER_THREAD && hasNextRaw())
+                pending.add(DecodePool.submit(nextRaw()));
+            return DecodePool.await(pending.poll());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * @return The number of pages returned so far
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    @Override
+    public void close() throws IOException {
+        // Pages decoded ahead are not needed anymore
+        pending.forEach(future -> future.cancel(false));
+        pending.clear();
+        if (source != null)
+            source.close();
+        else
+            reader.close();
+    }
+
+    @FunctionalInterface
+    private interface PageTask extends Callable<ArrayList<Post>> {
+        @Override
+        ArrayList<Post> call() throws IOException;
+    }
+}
@@ -0,0 +1,40 @@
+/*
+ * This file is part of Invision Archive Tools (IAT).
+ *
+ * Copyright (C) 2025 Mark Fisher
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see https://www.gnu.org/licenses/.
+ */
+
+package com.urbanelf.iat.content.parser;
+
+import com.urbanelf.iat.content.model.AuthorTable;
+import com.urbanelf.iat.content.model.Post;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+
+/**
+ * An archive whose pages can be read in any order (page 0 is the first page after the header).
+ * Pages may be read concurrently.
+ */
+public interface PageSource extends Closeable {
+    int getPageCount();
+
+    /**
+     * @param authors Table the page's authors are interned into
+     */
+    ArrayList<Post> readPage(int page, AuthorTable authors) throws IOException;
+}
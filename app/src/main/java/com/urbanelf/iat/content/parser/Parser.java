@@ -27,5 +27,17 @@ import java.io.BufferedReader;
 import java.io.IOException;
 
 public interface Parser {
-    Content parse(JSONObject header, BufferedReader reader) throws IOException;
+    Content parseHeader(JSONObject header);
+
+    /**
+     * Reads the remaining NDJSON lines of {@code reader} into {@code content}, which
+     * must have been returned by {@link #parseHeader(JSONObject)}.
+     */
+    void parsePages(Content content, BufferedReader reader) throws IOException;
+
+    default Content parse(JSONObject header, BufferedReader reader) throws IOException {
+        final Content content = parseHeader(header);
+        parsePages(content, reader);
+        return content;
+    }
 }
@@ -19,31 +19,215 @@
 
 package com.urbanelf.iat.content.parser;
 
+import com.urbanelf.iat.content.model.ColumnarPageStore;
 import com.urbanelf.iat.content.model.Content;
+import com.urbanelf.iat.content.model.PostContent;
 import com.urbanelf.iat.proto.constants.ContentType;
 
 import org.json.JSONException;
 import org.json.JSONObject;
 
+import java.io.BufferedInputStream;
 import java.io.BufferedReader;
 import java.io.File;
-import java.io.FileReader;
+import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
 
 public class ParserDispatcher {
+    private static final int PROBE_BUFFER_SIZE = 64 * 1024;
+    private static final int STREAM_BUFFER_SIZE = 64 * 1024;
+
     public static ContentSpec process(File src) throws IOException, JSONException {
-        try (BufferedReader reader = new BufferedReader(new FileReader(src))) {
+        return process(src, false);
+    }
+
+    /**
+     * @param columnar Whether post pages are packed into a {@link ColumnarPageStore}
+     *                 (smaller heap footprint, fields decoded on access)
+     */
+    public static ContentSpec process(File src, boolean columnar) throws IOException, JSONException {
+        if (BinaryArchiveReader.isBinaryArchive(src))
+            return processBinary(src, columnar);
+        try (BufferedReader reader = openReader(src)) {
             String line;
             // Parse header
             if ((line = reader.readLine()) != null) {
                 final JSONObject header = new JSONObject(line);
                 final ContentType contentType = header.getEnum(ContentType.class, Content.HEADER_TYPE);
                 // Pass to parser
-                final Content content = contentType.getParser().parse(header, reader);
+                final Parser parser = contentType.getParser();
+                final Content content = parser.parseHeader(header);
+                if (columnar && content instanceof PostContent postContent)
+                    postContent.useColumnarPages();
+                parser.parsePages(content, reader);
                 // Create spec
                 return new ContentSpec(contentType, src, content);
             }
         }
         return null;
     }
+
+    private static ContentSpec processBinary(File src, boolean columnar) throws IOException, JSONException {
+        try (BinaryArchiveReader reader = BinaryArchiveReader.open(src)) {
+            final Content content = reader.getContent();
+            if (content instanceof PostContent postContent) {
+                if (columnar)
+                    postContent.useColumnarPages();
+                for (int i = 0; i < reader.getPageCount(); i++)
+                    postContent.getPages().add(reader.readPage(i));
+            }
+            return new ContentSpec(reader.getType(), src, content);
+        }
+    }
+
+    /**
+     * Parses the header only; pages are left on disk and decoded lazily
+     * through {@link StreamingContentSpec#openPages()}.
+     */
+    public static StreamingContentSpec stream(File src) throws IOException, JSONException {
+        if (BinaryArchiveReader.isBinaryArchive(src)) {
+            try (BinaryArchiveReader reader = BinaryArchiveReader.open(src)) {
+                return new StreamingContentSpec(reader.getType(), src, reader.getContent());
+            }
+        }
+        try (BufferedReader reader = openReader(src)) {
+            String line;
+            // Parse header
+            if ((line = reader.readLine()) != null) {
+                final JSONObject header = new JSONObject(line);
+                final ContentType contentType = header.getEnum(ContentType.class, Content.HEADER_TYPE);
+                // Pass header to parser (pages are not read)
+                final Content content = contentType.getParser().parseHeader(header);
+                // Create spec
+                return new StreamingContentSpec(contentType, src, content);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Describes an archive without building its {@link Content}: only the header line is parsed,
+     * and pages are counted by scanning for line breaks (binary archives are described from their
+     * page directory).
+     */
+    public static ArchiveDescriptor probe(File src) throws IOException, JSONException {
+        if (BinaryArchiveReader.isBinaryArchive(src)) {
+            try (BinaryArchiveReader reader = BinaryArchiveReader.open(src)) {
+                final Content content = reader.getContent();
+                return new ArchiveDescriptor(reader.getType(), src, content.getTitle(),
+                        content instanceof PostContent postContent ? postContent.getUserData().size() : 0,
+                        src.length(), reader.getPageCount(), src.lastModified());
+            }
+        }
+        final JSONObject header;
+        try (BufferedReader reader = openReader(src)) {
+            final String line = reader.readLine();
+            if (line == null)
+                return null;
+            header = new JSONObject(line);
+        }
+        final ContentType contentType = header.getEnum(ContentType.class, Content.HEADER_TYPE);
+        final JSONObject userData = header.optJSONObject(PostContent.HEADER_USER_DATA);
+
+        // Count lines (header + pages)
+        long lines = 0;
+        long size = 0;
+        byte last = '\n';
+        if (detectCompression(src) != Compression.NONE) {
+            try (InputStream in = openStream(src)) {
+                final byte[] buffer = new byte[PROBE_BUFFER_SIZE];
+                int read;
+                while ((read = in.read(buffer)) != -1) {
+                    for (int i = 0; i < read; i++) {
+                        if (buffer[i] == '\n')
+                            lines++;
+                    }
+                    if (read > 0)
+                        last = buffer[read - 1];
+                }
+            }
+            // Size on disk
+            size = src.length();
+        } else {
+            try (FileChannel channel = FileChannel.open(src.toPath(), StandardOpenOption.READ)) {
+                final ByteBuffer buffer = ByteBuffer.allocateDirect(PROBE_BUFFER_SIZE);
+                int read;
+                while ((read = channel.read(buffer)) != -1) {
+                    buffer.flip();
+                    for (int i = 0; i < read; i++) {
+                        if (buffer.get(i) == '\n')
+                            lines++;
+                    }
+                    if (read > 0)
+                        last = buffer.get(read - 1);
+                    size += read;
+                    buffer.clear();
+                }
+            }
+        }
+        // Unterminated last line
+        if (last != '\n')
+            lines++;
+
+        return new ArchiveDescriptor(contentType, src, header.getString(Content.HEADER_TITLE),
+                userData == null ? 0 : userData.length(), size, (int) Math.max(0, lines - 1), src.lastModified());
+    }
+
+    static BufferedReader openReader(File src) throws IOException {
+        return new BufferedReader(new InputStreamReader(openStream(src), StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Opens {@code src} for reading, decompressing gzip and zlib (deflate) archives on the fly.
+     * The compression is detected from the first bytes, not from the file name.
+     */
+    public static InputStream openStream(File src) throws IOException {
+        final BufferedInputStream in = new BufferedInputStream(new FileInputStream(src), STREAM_BUFFER_SIZE);
+        try {
+            return switch (detectCompression(in)) {
+                case GZIP -> new GZIPInputStream(in, STREAM_BUFFER_SIZE);
+                case DEFLATE -> new InflaterInputStream(in);
+                case NONE -> in;
+            };
+        } catch (IOException e) {
+            in.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Detects the compression of {@code src} from its first bytes, as {@link #openStream(File)} does.
+     */
+    public static Compression detectCompression(File src) throws IOException {
+        try (BufferedInputStream in = new BufferedInputStream(new FileInputStream(src), 2)) {
+            return detectCompression(in);
+        }
+    }
+
+    private static Compression detectCompression(BufferedInputStream in) throws IOException {
+        in.mark(2);
+        final int b0 = in.read();
+        final int b1 = in.read();
+        in.reset();
+        if (b0 == 0x1f && b1 == 0x8b)
+            return Compression.GZIP;
+        // zlib: CM = 8 (deflate), CINFO <= 7, header checksum (NDJSON starts with '{', never matches)
+        if (b0 != -1 && b1 != -1 && (b0 & 0x0f) == 8 && (b0 >> 4) <= 7 && ((b0 << 8) | b1) % 31 == 0)
+            return Compression.DEFLATE;
+        return Compression.NONE;
+    }
+
+    public enum Compression {
+        NONE,
+        GZIP,
+        DEFLATE
+    }
 }
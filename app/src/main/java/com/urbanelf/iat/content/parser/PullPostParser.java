@@ -0,0 +1,134 @@
+/*
+ * This file is part of Invision Archive Tools (IAT).
+ *
+ * Copyright (C) 2025 Mark Fisher
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see https://www.gnu.org/licenses/.
+ */
+
+package com.urbanelf.iat.content.parser;
+
+import com.urbanelf.iat.content.model.AuthorTable;
+import com.urbanelf.iat.content.model.Content;
+import com.urbanelf.iat.content.model.Post;
+import com.urbanelf.iat.content.model.PostContent;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+
+/**
+ * Equivalent of {@link PostParser} that decodes pages with a {@link JSONPullReader},
+ * building posts straight from the character stream instead of an org.json tree.
+ */
+public class PullPostParser implements Parser {
+    private final int parallelism;
+
+    public PullPostParser() {
+        this(1);
+    }
+
+    /**
+     * @param parallelism Number of pages decoding concurrently on the shared {@link DecodePool}
+     *                    (1 decodes on the calling thread)
+     */
+    public PullPostParser(int parallelism) {
+        this.parallelism = Math.max(1, parallelism);
+    }
+
+    @Override
+    public Content parseHeader(JSONObject header) {
+        // Parse header (handled by content)
+        return new PostContent(header);
+    }
+
+    @Override
+    public void parsePages(Content target, BufferedReader reader) throws IOException {
+        final PostContent content = (PostContent) target;
+
+        if (parallelism > 1) {
+            // One line per page, decoded ahead by the cursor
+            final PageCursor cursor = new PageCursor(reader, content.getAuthors(), parallelism);
+            try {
+                while (cursor.hasNext())
+                    content.getPages().add(cursor.next());
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            return;
+        }
+
+        // Parse pages (NDJSON, one top-level value per page)
+        final JSONPullReader json = new JSONPullReader(reader);
+        while (json.peek() != JSONPullReader.Token.END_DOCUMENT)
+            content.getPages().add(readPage(json, content.getAuthors()));
+    }
+
+    public static ArrayList<Post> parsePage(String line, AuthorTable authors) throws JSONException {
+        try {
+            return readPage(new JSONPullReader(new StringReader(line)), authors);
+        } catch (IOException e) {
+            // Not thrown by StringReader
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public static ArrayList<Post> readPage(JSONPullReader json, AuthorTable authors) throws IOException {
+        final ArrayList<Post> page = new ArrayList<>();
+        boolean hasContent = false;
+        json.beginObject();
+        while (json.hasNext()) {
+            if (json.nextName().equals(Content.PAGE_CONTENT)) {
+                json.beginArray();
+                while (json.hasNext())
+                    page.add(readPost(json, authors));
+                json.endArray();
+                hasContent = true;
+            } else {
+                json.skipValue();
+            }
+        }
+        json.endObject();
+        if (!hasContent)
+            throw json.syntaxError("Page is missing \"" + Content.PAGE_CONTENT + "\"");
+        return page;
+    }
+
+    private static Post readPost(JSONPullReader json, AuthorTable authors) throws IOException {
+        String author = null;
+        String dateTime = null;
+        String link = null;
+        String content = null;
+        json.beginObject();
+        while (json.hasNext()) {
+            switch (json.nextName()) {
+                case Post.AUTHOR -> author = json.nextString();
+                case Post.DATETIME -> dateTime = json.nextString();
+                case Post.LINK -> link = json.nextString();
+                case Post.CONTENT -> content = json.nextString();
+                default -> json.skipValue();
+            }
+        }
+        json.endObject();
+        if (author == null || dateTime == null || link == null || content == null)
+            throw json.syntaxError("Post is missing one of \"" + Post.AUTHOR + "\", \"" + Post.DATETIME
+                    + "\", \"" + Post.LINK + "\", \"" + Post.CONTENT + "\"");
+        return new Post(authors, author, dateTime, link, content);
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ * This file is part of Invision Archive Tools (IAT).
+ *
+ * Copyright (C) 2025 Mark Fisher
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see https://www.gnu.org/licenses/.
+ */
+
+package com.urbanelf.iat.content.parser;
+
+import com.urbanelf.iat.content.model.AuthorTable;
+import com.urbanelf.iat.content.model.Content;
+import com.urbanelf.iat.content.model.PostContent;
+import com.urbanelf.iat.proto.constants.ContentType;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Streaming variant of {@link ContentSpec}: {@code content} only carries the header,
+ * pages are decoded on demand through {@link #openPages()}.
+ */
+public record StreamingContentSpec(ContentType type, File file, Content content) {
+    /**
+     * Opens a new cursor positioned at the first page. The caller owns (and must close) it.
+     * Only valid for paged content ({@link PostContent}). Pages are decoded ahead in parallel.
+     */
+    public PageCursor openPages() throws IOException {
+        return openPages(0);
+    }
+
+    /**
+     * Opens a new cursor positioned at {@code firstPage}. Binary archives and uncompressed archives
+     * (through an {@link IndexedArchiveReader}, once indexed) seek in O(1); compressed archives are
+     * decoded from the start.
+     */
+    public PageCursor openPages(int firstPage) throws IOException {
+        final AuthorTable authors = ((PostContent) content).getAuthors();
+        if (BinaryArchiveReader.isBinaryArchive(file))
+            return new PageCursor(BinaryArchiveReader.open(file), firstPage, authors, DecodePool.THREADS);
+        if (ParserDispatcher.detectCompression(file) == ParserDispatcher.Compression.NONE)
+            return new PageCursor(IndexedArchiveReader.open(file), firstPage, authors, DecodePool.THREADS);
+
+        final BufferedReader reader = ParserDispatcher.openReader(file);
+        try {
+            // Skip header and leading pages
+            for (int i = 0; i <= firstPage; i++)
+                reader.readLine();
+        } catch (IOException e) {
+            reader.close();
+            throw e;
+        }
+        return new PageCursor(reader, authors, DecodePool.THREADS);
+    }
+}
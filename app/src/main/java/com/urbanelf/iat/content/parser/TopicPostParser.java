@@ -30,10 +30,15 @@ import java.io.IOException;
 
 public class TopicPostParser implements Parser {
     @Override
-    public Content parse(JSONObject header, BufferedReader reader) throws IOException {
+    public Content parseHeader(JSONObject header) {
         // Parse header (handled by content)
         final PostContent content = new PostContent(header);
         // Further header parsing
         return new TopicPostContent(content, header);
     }
+
+    @Override
+    public void parsePages(Content content, BufferedReader reader) throws IOException {
+        // Topic pages are not read yet
+    }
 }
@@ -0,0 +1,153 @@
+/*
+ * This file is part of Invision Archive Tools (IAT).
+ *
+ * Copyright (C) 2025 Mark Fisher
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see https://www.gnu.org/licenses/.
+ */
+
+package com.urbanelf.iat.content.writer;
+
+import com.urbanelf.iat.content.model.AuthorTable;
+import com.urbanelf.iat.content.model.Content;
+import com.urbanelf.iat.content.model.Post;
+import com.urbanelf.iat.content.model.PostContent;
+import com.urbanelf.iat.content.model.UserData;
+import com.urbanelf.iat.content.parser.BinaryArchiveReader;
+import com.urbanelf.iat.content.parser.PageCursor;
+import com.urbanelf.iat.content.parser.StreamingContentSpec;
+import com.urbanelf.iat.proto.constants.ContentType;
+
+import org.json.JSONObject;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes the binary container read by {@link BinaryArchiveReader} (see there for the layout).
+ */
+public class BinaryWriter extends Writer {
+    private final ContentType type;
+
+    public BinaryWriter(ContentType type) {
+        this.type = type;
+    }
+
+    @Override
+    protected File write(Content content, File dst) throws IOException {
+        final PostContent postContent = (PostContent) content;
+        writeBinary(postContent, postContent.getPages().iterator(), dst);
+        return dst.getParentFile();
+    }
+
+    @Override
+    protected File write(StreamingContentSpec spec, File dst) throws IOException {
+        try (PageCursor cursor = spec.openPages()) {
+            writeBinary((PostContent) spec.content(), cursor, dst);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        return dst.getParentFile();
+    }
+
+    private void writeBinary(PostContent content, Iterator<? extends List<? extends Post>> pages, File dst)
+            throws IOException {
+        // Staging buffer (page blocks are written whole)
+        final ByteArrayOutputStream block = new ByteArrayOutputStream();
+        final DataOutputStream blockData = new DataOutputStream(block);
+        final ArrayList<Long> directory = new ArrayList<>();
+        long position = 0;
+
+        try (OutputStream out = new BufferedOutputStream(new FileOutputStream(dst))) {
+            blockData.writeInt(BinaryArchiveReader.MAGIC);
+            blockData.writeInt(BinaryArchiveReader.VERSION);
+            writeString(blockData, createHeader(content).toString());
+            position += flush(block, out);
+
+            // Page blocks
+            while (pages.hasNext()) {
+                final List<? extends Post> page = pages.next();
+                directory.add(position);
+                blockData.writeInt(page.size());
+                for (Post post : page) {
+                    blockData.writeInt(post.getAuthorId());
+                    writeString(blockData, post.getDateTime());
+                    writeString(blockData, post.getLink());
+                    writeString(blockData, post.getContent());
+                }
+                position += flush(block, out);
+            }
+
+            // String table (authors are complete once every page has been read)
+            final long tableOffset = position;
+            final AuthorTable authors = content.getAuthors();
+            final int authorCount = authors.size();
+            blockData.writeInt(authorCount);
+            for (int i = 0; i < authorCount; i++)
+                writeString(blockData, authors.getName(i));
+            directory.add(tableOffset);
+            position += flush(block, out);
+
+            // Page directory, trailer
+            final long directoryOffset = position;
+            for (long offset : directory)
+                blockData.writeLong(offset);
+            blockData.writeLong(tableOffset);
+            blockData.writeLong(directoryOffset);
+            blockData.writeInt(directory.size() - 1);
+            blockData.writeInt(BinaryArchiveReader.MAGIC);
+            flush(block, out);
+        }
+    }
+
+    private JSONObject createHeader(PostContent content) {
+        final JSONObject userData = new JSONObject();
+        for (Map.Entry<String, UserData> entry : content.getUserData().entrySet()) {
+            final UserData data = entry.getValue();
+            userData.put(entry.getKey(), new JSONObject()
+                    .put("profile_url", data.getProfileUrl())
+                    .put("avatar_url", data.getAvatarUrl())
+                    .put("group", data.getGroup())
+                    .put("group_icon_url", data.getGroupIconUrl()));
+        }
+        return new JSONObject()
+                .put(Content.HEADER_TYPE, type.name())
+                .put(Content.HEADER_TITLE, content.getTitle())
+                .put(PostContent.HEADER_USER_DATA, userData);
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static int flush(ByteArrayOutputStream block, OutputStream out) throws IOException {
+        final int size = block.size();
+        block.writeTo(out);
+        block.reset();
+        return size;
+    }
+}
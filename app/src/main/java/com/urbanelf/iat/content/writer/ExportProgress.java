@@ -0,0 +1,37 @@
+/*
+ * This file is part of Invision Archive Tools (IAT).
+ *
+ * Copyright (C) 2025 Mark Fisher
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see https://www.gnu.org/licenses/.
+ */
+
+package com.urbanelf.iat.content.writer;
+
+/**
+ * Receives the progress of an export, from the exporting thread and the threads it renders on.
+ */
+public interface ExportProgress {
+    ExportProgress NONE = new ExportProgress() {
+    };
+
+    /**
+     * Starts a stage of unknown length, until {@link #setProgress(int, int)} is called.
+     */
+    default void setStage(String stage) {
+    }
+
+    default void setProgress(int completed, int total) {
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * This file is part of Invision Archive Tools (IAT).
+ *
+ * Copyright (C) 2025 Mark Fisher
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see https://www.gnu.org/licenses/.
+ */
+
+package com.urbanelf.iat.content.writer;
+
+import java.io.File;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Runs exports off the UI threads. Cancelling an export interrupts its thread, which writers
+ * check between pages (see {@link com.urbanelf.iat.content.writer.html.HTMLWriter}).
+ */
+public class ExportService {
+    // Exports render on their own pools, a couple at once is plenty
+    private static final int EXPORT_THREADS = 2;
+
+    private static final ExecutorService EXECUTOR;
+
+    private static final int NEW = 0;
+    private static final int RUNNING = 1;
+    private static final int SKIPPED = 2;
+
+    static {
+        final AtomicInteger threadNumber = new AtomicInteger();
+        EXECUTOR = Executors.newFixedThreadPool(EXPORT_THREADS, runnable -> {
+            final Thread thread = new Thread(runnable, "export-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * @param onDone Called once the export thread is done with the export: finished, failed, or
+     *               cancelled and stopped (a cancelled export that never started is reported from
+     *               the cancelling thread)
+     * @return Export, cancel with {@code cancel(true)}
+     */
+    public static Future<File> submit(Callable<File> export, Consumer<Future<File>> onDone) {
+        // NEW -> RUNNING (the body reports once it returned) or SKIPPED (cancelled before it started)
+        final AtomicInteger state = new AtomicInteger(NEW);
+        final FutureTask<File> task = new FutureTask<>(() -> {
+            if (!state.compareAndSet(NEW, RUNNING))
+                return null;
+            return export.call();
+        }) {
+            @Override
+            protected void done() {
+                // FutureTask completes a cancelled task right away, while its body may still be running
+                if (state.compareAndSet(NEW, SKIPPED))
+                    onDone.accept(this);
+            }
+        };
+        EXECUTOR.execute(() -> {
+            try {
+                task.run();
+            } finally {
+                if (state.get() == RUNNING)
+                    onDone.accept(task);
+            }
+        });
+        return task;
+    }
+}
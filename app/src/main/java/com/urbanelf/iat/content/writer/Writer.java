@@ -20,6 +20,8 @@
 package com.urbanelf.iat.content.writer;
 
 import com.urbanelf.iat.content.model.Content;
+import com.urbanelf.iat.content.parser.ParserDispatcher;
+import com.urbanelf.iat.content.parser.StreamingContentSpec;
 import com.urbanelf.iat.util.StringUtils;
 
 import java.io.File;
@@ -28,6 +30,20 @@ import java.io.IOException;
 public abstract class Writer {
     protected abstract File write(Content content, File dst) throws IOException;
 
+    protected File write(StreamingContentSpec spec, File dst) throws IOException {
+        // No streaming path, materialize the whole archive (packed, only read once)
+        return write(ParserDispatcher.process(spec.file(), true).content(), dst);
+    }
+
+    protected File write(Content content, File dst, ExportProgress progress) throws IOException {
+        // No progress reported
+        return write(content, dst);
+    }
+
+    protected File write(StreamingContentSpec spec, File dst, ExportProgress progress) throws IOException {
+        return write(spec, dst);
+    }
+
     protected static File resolveDestinationDirectory(File dst) {
         File dstDirectory;
         for (int i = 0; true; i++) {
@@ -21,6 +21,9 @@ package com.urbanelf.iat.content.writer;
 
 import com.urbanelf.iat.content.ArchiveFormat;
 import com.urbanelf.iat.content.parser.ContentSpec;
+import com.urbanelf.iat.content.parser.StreamingContentSpec;
+import com.urbanelf.iat.content.writer.html.HTMLWriter;
+import com.urbanelf.iat.content.writer.html.Pagination;
 import com.urbanelf.iat.proto.constants.ContentType;
 
 import org.json.JSONException;
@@ -30,8 +33,28 @@ import java.io.IOException;
 
 public class WriterDispatcher {
     public static File write(ContentSpec spec, File dst, ArchiveFormat format) throws IOException, JSONException {
-        final ContentType contentType = spec.type();
+        return write(spec, dst, format, Pagination.ORIGINAL, ExportProgress.NONE);
+    }
+
+    public static File write(ContentSpec spec, File dst, ArchiveFormat format, Pagination pagination,
+                             ExportProgress progress) throws IOException, JSONException {
         // Write content to dst
-        return contentType.getWriterMap().get(format).write(spec.content(), dst);
+        return getWriter(spec.type(), format, pagination).write(spec.content(), dst, progress);
+    }
+
+    public static File write(StreamingContentSpec spec, File dst, ArchiveFormat format) throws IOException, JSONException {
+        return write(spec, dst, format, Pagination.ORIGINAL, ExportProgress.NONE);
+    }
+
+    public static File write(StreamingContentSpec spec, File dst, ArchiveFormat format, Pagination pagination,
+                             ExportProgress progress) throws IOException, JSONException {
+        // Write content to dst (pages are streamed from spec.file())
+        return getWriter(spec.type(), format, pagination).write(spec, dst, progress);
+    }
+
+    private static Writer getWriter(ContentType contentType, ArchiveFormat format, Pagination pagination) {
+        final Writer writer = contentType.getWriterMap().get(format);
+        // Only HTML pages are paginated
+        return writer instanceof HTMLWriter htmlWriter ? htmlWriter.withPagination(pagination) : writer;
     }
 }
@@ -0,0 +1,233 @@
+/*
+ * This file is part of Invision Archive Tools (IAT).
+ *
+ * Copyright (C) 2025 Mark Fisher
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see https://www.gnu.org/licenses/.
+ */
+
+package com.urbanelf.iat.content.writer.html;
+
+import com.urbanelf.iat.util.FileTree;
+import com.urbanelf.iat.util.HashUtils;
+import com.urbanelf.iat.util.LocalStorage;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Downloaded assets (avatars, ...) shared between exports, keyed by URL.
+ * <p>
+ * Entries remember the response's ETag/Last-Modified; once older than the TTL they are
+ * revalidated with a conditional request (see {@link AvatarDownloader}). The least recently
+ * used entries are evicted to stay under the byte budget. Thread-safe.
+ */
+public class AssetCache {
+    private static final String LS_ASSET_CACHE_TTL_HOURS = "asset_cache_ttl_hours";
+    private static final String LS_ASSET_CACHE_BUDGET_MB = "asset_cache_budget_mb";
+
+    public static final Duration DEFAULT_TTL = Duration.ofHours(24);
+    public static final long DEFAULT_BYTE_BUDGET = 256L * 1024 * 1024;
+
+    private static final String INDEX_FILE = "index.json";
+    private static final int INDEX_VERSION = 1;
+
+    private static AssetCache defaultCache;
+
+    private final Path directory;
+    private final Duration ttl;
+    private final long byteBudget;
+    // Access ordered, least recently used first
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long totalBytes;
+
+    public AssetCache(Path directory, Duration ttl, long byteBudget) throws IOException {
+        this.directory = directory;
+        this.ttl = ttl;
+        this.byteBudget = byteBudget;
+        Files.createDirectories(directory);
+        load();
+    }
+
+    /**
+     * @return The cache under {@link FileTree#getRootPath()}, configured through {@link LocalStorage}
+     */
+    public static synchronized AssetCache getDefault() throws IOException {
+        if (defaultCache == null) {
+            final JSONObject storage = LocalStorage.getJsonObject();
+            defaultCache = new AssetCache(FileTree.getRootPath().resolve("cache"),
+                    Duration.ofHours(storage.optLong(LS_ASSET_CACHE_TTL_HOURS, DEFAULT_TTL.toHours())),
+                    storage.optLong(LS_ASSET_CACHE_BUDGET_MB, DEFAULT_BYTE_BUDGET / (1024 * 1024)) * 1024 * 1024);
+        }
+        return defaultCache;
+    }
+
+    private void load() throws IOException {
+        final Path indexFile = directory.resolve(INDEX_FILE);
+        if (!Files.isRegularFile(indexFile))
+            return;
+        try {
+            final JSONObject index = new JSONObject(Files.readString(indexFile, StandardCharsets.UTF_8));
+            if (index.optInt("version", 0) != INDEX_VERSION)
+                return;
+            final JSONArray array = index.getJSONArray("entries");
+            for (int i = 0; i < array.length(); i++) {
+                final Entry entry = Entry.fromJSON(array.getJSONObject(i));
+                // Data deleted behind our back
+                if (!Files.isRegularFile(directory.resolve(entry.fileName())))
+                    continue;
+                entries.put(entry.url(), entry);
+                totalBytes += entry.size();
+            }
+        } catch (JSONException e) {
+            // Start over, orphaned data files are overwritten as URLs are fetched again
+            entries.clear();
+            totalBytes = 0;
+        }
+    }
+
+    public synchronized void save() throws IOException {
+        final JSONArray array = new JSONArray();
+        entries.values().forEach(entry -> array.put(entry.toJSON()));
+        final JSONObject index = new JSONObject()
+                .put("version", INDEX_VERSION)
+                .put("entries", array);
+        final Path tempFile = Files.createTempFile(directory, INDEX_FILE, ".tmp");
+        Files.writeString(tempFile, index.toString(), StandardCharsets.UTF_8);
+        Files.move(tempFile, directory.resolve(INDEX_FILE), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * @return The entry for {@code url} (marked as used), or null if not cached
+     */
+    public synchronized Entry lookup(String url) {
+        return entries.get(url);
+    }
+
+    public boolean isFresh(Entry entry) {
+        return System.currentTimeMillis() - entry.validatedAt() < ttl.toMillis();
+    }
+
+    /**
+     * @return A file in the cache directory to download into (see {@link #store(String, Path, String, String)})
+     */
+    public Path createTempFile() throws IOException {
+        return Files.createTempFile(directory, "download", ".tmp");
+    }
+
+    /**
+     * Moves a downloaded {@code tempFile} into the cache, replacing any previous entry for {@code url}.
+     */
+    public synchronized Entry store(String url, Path tempFile, String etag, String lastModified) throws IOException {
+        final String fileName = HashUtils.hashSHA256(url);
+        Files.move(tempFile, directory.resolve(fileName), StandardCopyOption.REPLACE_EXISTING);
+        final Entry entry = new Entry(url, fileName, etag, lastModified, System.currentTimeMillis(),
+                Files.size(directory.resolve(fileName)));
+        final Entry previous = entries.put(url, entry);
+        if (previous != null)
+            totalBytes -= previous.size();
+        totalBytes += entry.size();
+        evict(url);
+        return entry;
+    }
+
+    /**
+     * Marks {@code url} as still valid (e.g. after a 304 response).
+     */
+    public synchronized Entry revalidate(String url) {
+        final Entry entry = entries.get(url);
+        if (entry == null)
+            return null;
+        final Entry revalidated = new Entry(url, entry.fileName(), entry.etag(), entry.lastModified(),
+                System.currentTimeMillis(), entry.size());
+        entries.put(url, revalidated);
+        return revalidated;
+    }
+
+    /**
+     * Hard links (or copies, where links are unsupported) the cached data of {@code url} to {@code dst}.
+     *
+     * @return Whether {@code url} was cached
+     */
+    public synchronized boolean copyTo(String url, Path dst) throws IOException {
+        final Entry entry = entries.get(url);
+        if (entry == null)
+            return false;
+        final Path file = directory.resolve(entry.fileName());
+        Files.deleteIfExists(dst);
+        try {
+            Files.createLink(dst, file);
+        } catch (IOException | UnsupportedOperationException e) {
+            // Different file store, FAT, ...
+            Files.copy(file, dst, StandardCopyOption.REPLACE_EXISTING);
+        }
+        return true;
+    }
+
+    private void evict(String keep) throws IOException {
+        final Iterator<Map.Entry<String, Entry>> iterator = entries.entrySet().iterator();
+        while (totalBytes > byteBudget && iterator.hasNext()) {
+            final Entry entry = iterator.next().getValue();
+            // Never evict what is about to be used (even if it exceeds the budget on its own)
+            if (entry.url().equals(keep))
+                continue;
+            iterator.remove();
+            totalBytes -= entry.size();
+            Files.deleteIfExists(directory.resolve(entry.fileName()));
+        }
+    }
+
+    public synchronized long getTotalBytes() {
+        return totalBytes;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * @param validatedAt Time of the last 200/304 response (epoch millis)
+     */
+    public record Entry(String url, String fileName, String etag, String lastModified, long validatedAt, long size) {
+        private JSONObject toJSON() {
+            return new JSONObject()
+                    .put("url", url)
+                    .put("file", fileName)
+                    .put("etag", etag == null ? JSONObject.NULL : etag)
+                    .put("last_modified", lastModified == null ? JSONObject.NULL : lastModified)
+                    .put("validated_at", validatedAt)
+                    .put("size", size);
+        }
+
+        private static Entry fromJSON(JSONObject jsonObject) {
+            return new Entry(jsonObject.getString("url"),
+                    jsonObject.getString("file"),
+                    jsonObject.isNull("etag") ? null : jsonObject.getString("etag"),
+                    jsonObject.isNull("last_modified") ? null : jsonObject.getString("last_modified"),
+                    jsonObject.getLong("validated_at"),
+                    jsonObject.getLong("size"));
+        }
+    }
+}
@@ -0,0 +1,301 @@
+/*
+ * This file is part of Invision Archive Tools (IAT).
+ *
+ * Copyright (C) 2025 Mark Fisher
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see https://www.gnu.org/licenses/.
+ */
+
+package com.urbanelf.iat.content.writer.html;
+
+import com.urbanelf.iat.util.HashUtils;
+import com.urbanelf.iat.util.URLUtils;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+
+/**
+ * Downloads avatars (and other images, see {@link ContentImageLocalizer}) concurrently over a single {@link HttpClient}.
+ * Each distinct URL is fetched once, with at most {@code concurrency} requests in flight.
+ * Saved files are named after the SHA-256 of their content, so identical avatars behind different
+ * URLs end up as a single file.
+ * <p>
+ * With an {@link AssetCache}, fresh entries are linked from the cache without a request, stale ones
+ * are revalidated with a conditional request (and served as-is if revalidation fails).
+ */
+public class AvatarDownloader {
+    public static final int DEFAULT_CONCURRENCY = 8;
+    public static final Duration DEFAULT_TIMEOUT = Duration.ofSeconds(30);
+
+    private static final HttpClient SHARED_CLIENT = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(10))
+            .followRedirects(HttpClient.Redirect.NORMAL)
+            .build();
+
+    private final HttpClient client;
+    private final int concurrency;
+    private final Duration timeout;
+    private final AssetCache cache;
+
+    public AvatarDownloader() {
+        this(null);
+    }
+
+    public AvatarDownloader(AssetCache cache) {
+        this(SHARED_CLIENT, DEFAULT_CONCURRENCY, DEFAULT_TIMEOUT, cache);
+    }
+
+    /**
+     * @param timeout Per request timeout (connecting excluded, see {@link HttpClient.Builder#connectTimeout(Duration)})
+     */
+    public AvatarDownloader(HttpClient client, int concurrency, Duration timeout) {
+        this(client, concurrency, timeout, null);
+    }
+
+    public AvatarDownloader(HttpClient client, int concurrency, Duration timeout, AssetCache cache) {
+        this.client = client;
+        this.concurrency = Math.max(1, concurrency);
+        this.timeout = timeout;
+        this.cache = cache;
+    }
+
+    /**
+     * @param urls         Avatar URLs (duplicates are downloaded once)
+     * @param dstDirectory Directory the avatars are saved to
+     */
+    public Result download(Collection<String> urls, Path dstDirectory) throws InterruptedException {
+        return download(urls, dstDirectory, null);
+    }
+
+    /**
+     * @param progress Called with the number of completed and distinct URLs as each URL completes
+     *                 (from any thread), or null
+     */
+    public Result download(Collection<String> urls, Path dstDirectory, BiConsumer<Integer, Integer> progress)
+            throws InterruptedException {
+        final LinkedHashSet<String> distinctUrls = new LinkedHashSet<>(urls);
+        final AtomicInteger completed = new AtomicInteger();
+        final Runnable onCompleted = () -> {
+            final int done = completed.incrementAndGet();
+            if (progress != null)
+                progress.accept(done, distinctUrls.size());
+        };
+        final Map<String, Path> downloaded = new ConcurrentHashMap<>();
+        final Map<String, String> failures = new ConcurrentHashMap<>();
+        final Semaphore permits = new Semaphore(concurrency);
+        final ArrayList<CompletableFuture<Void>> requests = new ArrayList<>();
+        // File names already taken (different URLs may share one)
+        final HashSet<String> fileNames = new HashSet<>();
+
+        try {
+            for (String url : distinctUrls) {
+                final AssetCache.Entry cached = cache == null ? null : cache.lookup(url);
+                final HttpRequest request;
+                try {
+                    final HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(url))
+                            .timeout(timeout)
+                            .GET();
+                    if (cached != null) {
+                        if (cached.etag() != null)
+                            builder.header("If-None-Match", cached.etag());
+                        if (cached.lastModified() != null)
+                            builder.header("If-Modified-Since", cached.lastModified());
+                    }
+                    request = builder.build();
+                } catch (IllegalArgumentException e) {
+                    failures.put(url, "invalid URL");
+                    onCompleted.run();
+                    continue;
+                }
+                final Path file = dstDirectory.resolve(resolveFileName(url, fileNames));
+
+                if (cached != null && cache.isFresh(cached)) {
+                    copyFromCache(url, file, downloaded, failures);
+                    onCompleted.run();
+                    continue;
+                }
+
+                // Cached downloads land in the cache first
+                final Path target;
+                try {
+                    target = cache == null ? file : cache.createTempFile();
+                } catch (IOException e) {
+                    failures.put(url, describe(e));
+                    onCompleted.run();
+                    continue;
+                }
+
+                permits.acquire();
+                requests.add(client.sendAsync(request, responseInfo -> responseInfo.statusCode() / 100 == 2
+                                ? HttpResponse.BodySubscribers.ofFile(target)
+                                : HttpResponse.BodySubscribers.replacing(target))
+                        .handle((response, throwable) -> {
+                            permits.release();
+                            if (cache == null)
+                                complete(url, file, response, throwable, downloaded, failures);
+                            else
+                                completeCached(url, file, target, cached != null, response, throwable, downloaded, failures);
+                            onCompleted.run();
+                            return null;
+                        }));
+            }
+            CompletableFuture.allOf(requests.toArray(new CompletableFuture[0])).get();
+        } catch (InterruptedException e) {
+            requests.forEach(request -> request.cancel(true));
+            throw e;
+        } catch (ExecutionException e) {
+            // Not thrown, failures are handled per request
+            throw new IllegalStateException(e);
+        }
+
+        return new Result(deduplicate(downloaded, dstDirectory), failures);
+    }
+
+    /**
+     * Renames each downloaded file after its content hash, deleting duplicates.
+     */
+    private static Map<String, Path> deduplicate(Map<String, Path> downloaded, Path dstDirectory) {
+        final HashMap<Path, Path> renamed = new HashMap<>();
+        final HashMap<String, Path> byHash = new HashMap<>();
+        final HashMap<String, Path> result = new HashMap<>();
+        downloaded.forEach((url, file) -> {
+            result.put(url, renamed.computeIfAbsent(file, f -> {
+                try {
+                    final String hash = HashUtils.hashFileSHA256(f);
+                    final Path existing = byHash.get(hash);
+                    if (existing != null) {
+                        Files.delete(f);
+                        return existing;
+                    }
+                    final String name = f.getFileName().toString();
+                    final int dot = name.lastIndexOf('.');
+                    final Path target = dstDirectory.resolve(hash + (dot > 0 ? name.substring(dot) : ""));
+                    Files.move(f, target, StandardCopyOption.REPLACE_EXISTING);
+                    byHash.put(hash, target);
+                    return target;
+                } catch (IOException e) {
+                    // Still usable under its download name
+                    return f;
+                }
+            }));
+        });
+        return result;
+    }
+
+    private static void complete(String url, Path file, HttpResponse<Path> response, Throwable throwable,
+                                 Map<String, Path> downloaded, Map<String, String> failures) {
+        if (throwable != null) {
+            failures.put(url, describe(throwable));
+            deleteQuietly(file);
+        } else if (response.statusCode() / 100 != 2) {
+            failures.put(url, "HTTP " + response.statusCode());
+            deleteQuietly(file);
+        } else {
+            downloaded.put(url, file);
+        }
+    }
+
+    private void completeCached(String url, Path file, Path tempFile, boolean wasCached,
+                                HttpResponse<Path> response, Throwable throwable,
+                                Map<String, Path> downloaded, Map<String, String> failures) {
+        try {
+            if (throwable == null && response.statusCode() / 100 == 2) {
+                cache.store(url, tempFile,
+                        response.headers().firstValue("ETag").orElse(null),
+                        response.headers().firstValue("Last-Modified").orElse(null));
+                copyFromCache(url, file, downloaded, failures);
+                return;
+            }
+            deleteQuietly(tempFile);
+            if (throwable == null && response.statusCode() == 304 && wasCached) {
+                cache.revalidate(url);
+                copyFromCache(url, file, downloaded, failures);
+            } else if (wasCached) {
+                // Stale beats missing
+                copyFromCache(url, file, downloaded, failures);
+            } else {
+                failures.put(url, throwable != null ? describe(throwable) : "HTTP " + response.statusCode());
+            }
+        } catch (IOException e) {
+            deleteQuietly(tempFile);
+            failures.put(url, describe(e));
+        }
+    }
+
+    private void copyFromCache(String url, Path file, Map<String, Path> downloaded, Map<String, String> failures) {
+        try {
+            if (cache.copyTo(url, file))
+                downloaded.put(url, file);
+            else
+                failures.put(url, "evicted from cache");
+        } catch (IOException e) {
+            failures.put(url, describe(e));
+        }
+    }
+
+    private static String resolveFileName(String url, HashSet<String> fileNames) {
+        String name = URLUtils.getResourceName(url);
+        if (name.isEmpty())
+            name = "avatar";
+        final String base = name;
+        for (int i = 1; !fileNames.add(name); i++)
+            name = i + "_" + base;
+        return name;
+    }
+
+    private static String describe(Throwable throwable) {
+        if (throwable instanceof CompletionException && throwable.getCause() != null)
+            throwable = throwable.getCause();
+        if (throwable instanceof HttpTimeoutException)
+            return "timed out";
+        return throwable.getClass().getSimpleName()
+                + (throwable.getMessage() == null ? "" : ": " + throwable.getMessage());
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            // Left behind, harmless
+        }
+    }
+
+    /**
+     * @param downloaded Saved file per URL
+     * @param failures   Reason per URL that could not be downloaded
+     */
+    public record Result(Map<String, Path> downloaded, Map<String, String> failures) {
+    }
+}
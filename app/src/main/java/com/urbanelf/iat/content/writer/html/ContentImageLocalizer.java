@@ -0,0 +1,242 @@
+/*
+ * This file is part of Invision Archive Tools (IAT).
+ *
+ * Copyright (C) 2025 Mark Fisher
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see https://www.gnu.org/licenses/.
+ */
+
+package com.urbanelf.iat.content.writer.html;
+
+import com.urbanelf.iat.content.model.Post;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Localizes images embedded in post content (inline images, attachments, emoticons): their URLs are
+ * collected across the archive, downloaded once each (see {@link AvatarDownloader}) and the {@code <img>}
+ * tags are rewritten to point at the saved files.
+ * <p>
+ * Lazy-loaded images ({@code data-src}) get their real source in {@code src}, since the community's
+ * scripts are not part of the export.
+ */
+public class ContentImageLocalizer {
+    private static final Pattern IMG_TAG = Pattern.compile("<img\\b[^>]*>", Pattern.CASE_INSENSITIVE);
+    // Groups: leading whitespace, name, equals sign, value (double quoted), value (single quoted)
+    private static final Pattern IMG_ATTRIBUTE = Pattern.compile(
+            "(\\s)(src|data-src|srcset)(\\s*=\\s*)(?:\"([^\"]*)\"|'([^']*)')", Pattern.CASE_INSENSITIVE);
+
+    private final LinkedHashSet<String> urls = new LinkedHashSet<>();
+    // URL -> path relative to the page
+    private final HashMap<String, String> localPaths = new HashMap<>();
+
+    /**
+     * Registers the images of {@code html}, to be downloaded by {@link #download}.
+     */
+    public void collect(String html) {
+        if (html == null)
+            return;
+        final Matcher tag = IMG_TAG.matcher(html);
+        while (tag.find()) {
+            final Matcher attribute = IMG_ATTRIBUTE.matcher(tag.group());
+            while (attribute.find()) {
+                final String value = getValue(attribute);
+                if (attribute.group(2).equalsIgnoreCase("srcset")) {
+                    for (String candidate : value.split(",")) {
+                        final String url = resolve(candidate.trim().split("\\s+", 2)[0]);
+                        if (url != null)
+                            urls.add(url);
+                    }
+                } else {
+                    final String url = resolve(value);
+                    if (url != null)
+                        urls.add(url);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return Collected image URLs
+     */
+    public Set<String> getUrls() {
+        return Collections.unmodifiableSet(urls);
+    }
+
+    /**
+     * Downloads the collected images to {@code dstDirectory}.
+     *
+     * @param relativePath Path of {@code dstDirectory} relative to the pages, used in the rewritten tags
+     * @param progress     See {@link AvatarDownloader#download(java.util.Collection, Path, BiConsumer)}
+     */
+    public AvatarDownloader.Result download(AvatarDownloader downloader, Path dstDirectory, String relativePath,
+                                            BiConsumer<Integer, Integer> progress) throws InterruptedException {
+        final AvatarDownloader.Result result = downloader.download(urls, dstDirectory, progress);
+        result.downloaded().forEach((url, file) -> localPaths.put(url, relativePath + "/" + file.getFileName()));
+        return result;
+    }
+
+    /**
+     * @return {@code html} with the downloaded images pointing at their local copies
+     * (images that could not be downloaded keep their URL)
+     */
+    public String rewrite(String html) {
+        if (html == null || localPaths.isEmpty())
+            return html;
+        final Matcher tag = IMG_TAG.matcher(html);
+        StringBuilder builder = null;
+        int last = 0;
+        while (tag.find()) {
+            final String rewritten = rewriteTag(tag.group());
+            if (rewritten == null)
+                continue;
+            if (builder == null)
+                builder = new StringBuilder(html.length());
+            builder.append(html, last, tag.start()).append(rewritten);
+            last = tag.end();
+        }
+        if (builder == null)
+            return html;
+        return builder.append(html, last, html.length()).toString();
+    }
+
+    /**
+     * @return {@code posts} with their content rewritten (see {@link #rewrite(String)})
+     */
+    public List<? extends Post> localize(List<? extends Post> posts) {
+        if (localPaths.isEmpty())
+            return posts;
+        final ArrayList<Post> localized = new ArrayList<>(posts.size());
+        for (Post post : posts)
+            localized.add(new LocalizedPost(post, rewrite(post.getContent())));
+        return localized;
+    }
+
+    /**
+     * @return Rewritten tag, or null if nothing in it was downloaded
+     */
+    private String rewriteTag(String tag) {
+        // The lazy-loaded source wins over the placeholder in src
+        String lazySource = null;
+        final Matcher attribute = IMG_ATTRIBUTE.matcher(tag);
+        while (attribute.find()) {
+            if (attribute.group(2).equalsIgnoreCase("data-src"))
+                lazySource = localPath(getValue(attribute));
+        }
+
+        attribute.reset();
+        final StringBuilder builder = new StringBuilder(tag.length());
+        boolean changed = false;
+        int last = 0;
+        while (attribute.find()) {
+            final String name = attribute.group(2);
+            final String value = getValue(attribute);
+            final String rewritten;
+            if (name.equalsIgnoreCase("srcset")) {
+                rewritten = rewriteSrcset(value);
+            } else if (name.equalsIgnoreCase("src") && lazySource != null) {
+                rewritten = lazySource;
+            } else {
+                rewritten = localPath(value);
+            }
+            if (rewritten == null || rewritten.equals(value))
+                continue;
+            builder.append(tag, last, attribute.start())
+                    .append(attribute.group(1)).append(name).append(attribute.group(3))
+                    .append('"').append(rewritten).append('"');
+            last = attribute.end();
+            changed = true;
+        }
+        if (!changed)
+            return null;
+        return builder.append(tag, last, tag.length()).toString();
+    }
+
+    private String rewriteSrcset(String srcset) {
+        final ArrayList<String> candidates = new ArrayList<>();
+        boolean changed = false;
+        for (String candidate : srcset.split(",")) {
+            final String[] parts = candidate.trim().split("\\s+", 2);
+            final String local = localPath(parts[0]);
+            if (local != null) {
+                candidates.add(parts.length > 1 ? local + " " + parts[1] : local);
+                changed = true;
+            } else {
+                candidates.add(candidate.trim());
+            }
+        }
+        return changed ? String.join(", ", candidates) : null;
+    }
+
+    private String localPath(String value) {
+        final String url = resolve(value);
+        return url == null ? null : localPaths.get(url);
+    }
+
+    private static String getValue(Matcher attribute) {
+        return attribute.group(4) != null ? attribute.group(4) : attribute.group(5);
+    }
+
+    /**
+     * @return Absolute URL of an attribute value, or null if it cannot be downloaded (data URI, relative path)
+     */
+    static String resolve(String value) {
+        String url = value.trim().replace("&amp;", "&");
+        if (url.startsWith("//"))
+            url = "https:" + url;
+        final String lower = url.toLowerCase();
+        return lower.startsWith("https://") || lower.startsWith("http://") ? url : null;
+    }
+
+    /**
+     * Post with rewritten content.
+     */
+    private static class LocalizedPost extends Post {
+        private final String dateTime;
+        private final String link;
+        private final String content;
+
+        LocalizedPost(Post post, String content) {
+            super(post.getAuthor(), post.getAuthorId());
+            this.dateTime = post.getDateTime();
+            this.link = post.getLink();
+            this.content = content;
+        }
+
+        @Override
+        public String getDateTime() {
+            return dateTime;
+        }
+
+        @Override
+        public String getLink() {
+            return link;
+        }
+
+        @Override
+        public String getContent() {
+            return content;
+        }
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * This file is part of Invision Archive Tools (IAT).
+ *
+ * Copyright (C) 2025 Mark Fisher
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see https://www.gnu.org/licenses/.
+ */
+
+package com.urbanelf.iat.content.writer.html;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * Writes the export as a directory tree.
+ */
+public class DirectoryExportTree implements ExportTree {
+    private final File root;
+
+    public DirectoryExportTree(File root) {
+        this.root = root;
+    }
+
+    private Path resolve(String path) throws IOException {
+        final Path target = root.toPath().resolve(path);
+        Files.createDirectories(target.getParent());
+        return target;
+    }
+
+    @Override
+    public void write(String path, byte[] data) throws IOException {
+        Files.write(resolve(path), data);
+    }
+
+    @Override
+    public void write(String path, InputStream in) throws IOException {
+        Files.copy(in, resolve(path), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    @Override
+    public void link(String path, Path file) throws IOException {
+        final Path target = resolve(path);
+        if (Files.exists(target)) {
+            // Left from a previous export into this directory
+            if (Files.isSameFile(target, file) || Files.mismatch(target, file) == -1)
+                return;
+            Files.delete(target);
+        }
+        try {
+            Files.createLink(target, file);
+        } catch (IOException | UnsupportedOperationException e) {
+            // Different file store, FAT, ...
+            Files.copy(file, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    @Override
+    public boolean exists(String path) {
+        return Files.isRegularFile(root.toPath().resolve(path));
+    }
+
+    @Override
+    public byte[] read(String path) throws IOException {
+        final Path file = root.toPath().resolve(path);
+        return Files.isRegularFile(file) ? Files.readAllBytes(file) : null;
+    }
+
+    @Override
+    public void delete(String path) throws IOException {
+        Files.deleteIfExists(root.toPath().resolve(path));
+    }
+
+    @Override
+    public Path stage(String directory) throws IOException {
+        // Already in place
+        return Files.createDirectories(root.toPath().resolve(directory));
+    }
+
+    @Override
+    public File getLocation() {
+        return root;
+    }
+
+    @Override
+    public void close() {
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * This file is part of Invision Archive Tools (IAT).
+ *
+ * Copyright (C) 2025 Mark Fisher
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see https://www.gnu.org/licenses/.
+ */
+
+package com.urbanelf.iat.content.writer.html;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Content hashes of the pages of an HTML export, stored with it so that a later export
+ * into the same directory only rewrites the pages that changed.
+ * <p>
+ * The manifest also names the archive the export was made from, a directory is only reused
+ * by exports of the same archive.
+ */
+public class ExportManifest {
+    public static final String FILE_NAME = "export-manifest.json";
+    private static final int VERSION = 2;
+
+    private static final String KEY_VERSION = "version";
+    private static final String KEY_SOURCE = "source";
+    private static final String KEY_PAGES = "pages";
+
+    private final String sourceId;
+    // Index 0 is page 1
+    private final String[] pageHashes;
+
+    /**
+     * @param sourceId Identifies the exported archive (see {@link HTMLWriter#createExportTree})
+     */
+    public ExportManifest(String sourceId, int pageCount) {
+        this.sourceId = sourceId;
+        pageHashes = new String[pageCount];
+    }
+
+    /**
+     * @return Manifest of the previous export held by {@code tree}, empty if there is none or it is unreadable
+     */
+    public static ExportManifest read(ExportTree tree) throws IOException {
+        final byte[] data = tree.read(FILE_NAME);
+        if (data == null)
+            return new ExportManifest(null, 0);
+        try {
+            final JSONObject jsonObject = new JSONObject(new String(data, StandardCharsets.UTF_8));
+            if (jsonObject.optInt(KEY_VERSION) != VERSION)
+                return new ExportManifest(null, 0);
+            final JSONArray pages = jsonObject.getJSONArray(KEY_PAGES);
+            final ExportManifest manifest = new ExportManifest(jsonObject.getString(KEY_SOURCE), pages.length());
+            for (int i = 0; i < pages.length(); i++)
+                manifest.pageHashes[i] = pages.getString(i);
+            return manifest;
+        } catch (JSONException e) {
+            // Everything is rewritten
+            return new ExportManifest(null, 0);
+        }
+    }
+
+    /**
+     * @return Identifier of the exported archive, null if unknown
+     */
+    public String getSourceId() {
+        return sourceId;
+    }
+
+    public int getPageCount() {
+        return pageHashes.length;
+    }
+
+    /**
+     * @return Hash of page {@code pageNumber} (1-based), or null if unknown
+     */
+    public String getPageHash(int pageNumber) {
+        return pageNumber <= pageHashes.length ? pageHashes[pageNumber - 1] : null;
+    }
+
+    /**
+     * Pages set from different threads must be published through a happens-before edge (e.g. Future.get).
+     */
+    public void setPageHash(int pageNumber, String hash) {
+        pageHashes[pageNumber - 1] = hash;
+    }
+
+    public byte[] toBytes() {
+        final JSONObject jsonObject = new JSONObject();
+        jsonObject.put(KEY_VERSION, VERSION);
+        jsonObject.put(KEY_SOURCE, sourceId);
+        jsonObject.put(KEY_PAGES, new JSONArray(Arrays.asList(pageHashes)));
+        return jsonObject.toString().getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ * This file is part of Invision Archive Tools (IAT).
+ *
+ * Copyright (C) 2025 Mark Fisher
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see https://www.gnu.org/licenses/.
+ */
+
+package com.urbanelf.iat.content.writer.html;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+
+/**
+ * Destination of an HTML export. Paths are relative to the export root and '/' separated.
+ * Writes may come from several render threads at once.
+ * <p>
+ * A tree may hold files of a previous export into the same target (see {@link ExportManifest}).
+ */
+public interface ExportTree extends Closeable {
+    void write(String path, byte[] data) throws IOException;
+
+    void write(String path, InputStream in) throws IOException;
+
+    /**
+     * Adds an existing file that is never modified (e.g. from {@link ResourceStore}),
+     * which directory trees hard-link when possible.
+     */
+    void link(String path, Path file) throws IOException;
+
+    boolean exists(String path);
+
+    /**
+     * @return Content of {@code path}, or null if the tree does not hold it
+     */
+    byte[] read(String path) throws IOException;
+
+    void delete(String path) throws IOException;
+
+    /**
+     * @return Filesystem directory whose contents end up under {@code directory} once the tree is closed,
+     * for files produced by tools that write to disk (e.g. avatar downloads)
+     */
+    Path stage(String directory) throws IOException;
+
+    /**
+     * @return File to reveal to the user once the export is done
+     */
+    File getLocation();
+
+    /**
+     * Marks the export as complete, called last before closing. Trees that are moved into place
+     * when closed (see {@link ZipExportTree}) discard an export closed without it.
+     */
+    default void commit() throws IOException {
+    }
+}
@@ -0,0 +1,272 @@
+/*
+ * This file is part of Invision Archive Tools (IAT).
+ *
+ * Copyright (C) 2025 Mark Fisher
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see https://www.gnu.org/licenses/.
+ */
+
+package com.urbanelf.iat.content.writer.html;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Minifies HTML on its way to another writer, one character at a time (no document is built).
+ * Comments are dropped and whitespace runs between markup are collapsed to one space (or newline).
+ * Tags are passed through as they are, and so is the content of {@code pre}, {@code textarea},
+ * {@code script} and {@code style} elements.
+ */
+public class HTMLMinifyingWriter extends Writer {
+    private static final int BUFFER_SIZE = 8192;
+    private static final String COMMENT_START = "<!--";
+    // Content left as written, up to the closing tag
+    private static final String[] RAW_ELEMENTS = {"pre", "textarea", "script", "style"};
+
+    private enum State {
+        TEXT,
+        // After '<', until it is known to start a comment or a tag
+        MARKUP,
+        COMMENT,
+        TAG,
+        RAW
+    }
+
+    private final Writer out;
+    private final char[] buffer = new char[BUFFER_SIZE];
+    private int bufferLength;
+
+    private State state = State.TEXT;
+    // Whitespace seen in text and not written yet: 0, ' ' or '\n'
+    private char pendingWhitespace;
+    // Start of the markup, at most COMMENT_START.length() characters
+    private final StringBuilder markup = new StringBuilder(COMMENT_START.length());
+    // Consecutive '-' in a comment
+    private int commentDashes;
+
+    // Current tag
+    private final StringBuilder tagName = new StringBuilder();
+    private boolean tagNameDone;
+    private boolean closingTag;
+    private char tagQuote;
+    private char tagPrevious;
+
+    // Closing tag of the current raw element (lower case, e.g. "</pre") and how much of it was matched
+    private String rawEnd;
+    private int rawMatched;
+
+    public HTMLMinifyingWriter(Writer out) {
+        this.out = out;
+    }
+
+    @Override
+    public void write(int c) throws IOException {
+        process((char) c);
+    }
+
+    @Override
+    public void write(char[] chars, int offset, int length) throws IOException {
+        for (int i = offset; i < offset + length; i++)
+            process(chars[i]);
+    }
+
+    @Override
+    public void write(String string, int offset, int length) throws IOException {
+        for (int i = offset; i < offset + length; i++)
+            process(string.charAt(i));
+    }
+
+    private void process(char c) throws IOException {
+        switch (state) {
+            case TEXT -> text(c);
+            case MARKUP -> markup(c);
+            case COMMENT -> comment(c);
+            case TAG -> tag(c);
+            case RAW -> raw(c);
+        }
+    }
+
+    private void text(char c) throws IOException {
+        if (isWhitespace(c)) {
+            if (c == '\n' || c == '\r')
+                pendingWhitespace = '\n';
+            else if (pendingWhitespace == 0)
+                pendingWhitespace = ' ';
+            return;
+        }
+        if (c == '<') {
+            // Whitespace is kept pending in case a comment follows
+            state = State.MARKUP;
+            markup.setLength(0);
+            markup.append(c);
+            return;
+        }
+        flushWhitespace();
+        emit(c);
+    }
+
+    private void markup(char c) throws IOException {
+        markup.append(c);
+        final int length = markup.length();
+        if (c == COMMENT_START.charAt(length - 1)) {
+            if (length == COMMENT_START.length()) {
+                state = State.COMMENT;
+                commentDashes = 0;
+            }
+            return;
+        }
+
+        // A tag (or a stray '<'), processed again from its start
+        flushWhitespace();
+        state = State.TAG;
+        tagName.setLength(0);
+        tagNameDone = false;
+        closingTag = false;
+        tagQuote = 0;
+        tagPrevious = 0;
+        emit('<');
+        for (int i = 1; i < length; i++)
+            process(markup.charAt(i));
+    }
+
+    private void comment(char c) {
+        // Dropped, up to and including "-->"
+        if (c == '>' && commentDashes >= 2) {
+            state = State.TEXT;
+            return;
+        }
+        commentDashes = c == '-' ? commentDashes + 1 : 0;
+    }
+
+    private void tag(char c) throws IOException {
+        if (!tagNameDone) {
+            if (tagPrevious == 0) {
+                // First character after '<'
+                tagPrevious = c;
+                if (c == '/') {
+                    closingTag = true;
+                    emit(c);
+                    return;
+                }
+                if (c == '!' || c == '?') {
+                    // Doctype or processing instruction
+                    tagNameDone = true;
+                    emit(c);
+                    return;
+                }
+            }
+            if (tagName.isEmpty() && !Character.isLetter(c)) {
+                // "< " or "<3", not markup
+                state = State.TEXT;
+                text(c);
+                return;
+            }
+            if (Character.isLetterOrDigit(c) || c == '-' || c == ':') {
+                tagName.append(Character.toLowerCase(c));
+                tagPrevious = c;
+                emit(c);
+                return;
+            }
+            tagNameDone = true;
+        }
+
+        emit(c);
+        if (tagQuote != 0) {
+            if (c == tagQuote)
+                tagQuote = 0;
+        } else if (c == '"' || c == '\'') {
+            tagQuote = c;
+        } else if (c == '>') {
+            endTag();
+            return;
+        }
+        tagPrevious = c;
+    }
+
+    private void endTag() {
+        state = State.TEXT;
+        // Closing or self-closing
+        if (closingTag || tagPrevious == '/')
+            return;
+        for (String element : RAW_ELEMENTS) {
+            if (element.contentEquals(tagName)) {
+                state = State.RAW;
+                rawEnd = "</" + element;
+                rawMatched = 0;
+                return;
+            }
+        }
+    }
+
+    private void raw(char c) throws IOException {
+        if (rawMatched == rawEnd.length()) {
+            if (c == '>' || c == '/' || isWhitespace(c)) {
+                // The closing tag, passed through
+                state = State.TAG;
+                tagNameDone = true;
+                closingTag = true;
+                tagQuote = 0;
+                tag(c);
+                return;
+            }
+            // Longer name (e.g. "</prefix")
+            rawMatched = 0;
+        }
+        emit(c);
+        if (Character.toLowerCase(c) == rawEnd.charAt(rawMatched))
+            rawMatched++;
+        else
+            // '<' only starts the closing tag
+            rawMatched = c == '<' ? 1 : 0;
+    }
+
+    private static boolean isWhitespace(char c) {
+        return c == ' ' || c == '\n' || c == '\t' || c == '\r' || c == '\f';
+    }
+
+    private void flushWhitespace() throws IOException {
+        if (pendingWhitespace != 0) {
+            emit(pendingWhitespace);
+            pendingWhitespace = 0;
+        }
+    }
+
+    private void emit(char c) throws IOException {
+        if (bufferLength == buffer.length) {
+            out.write(buffer, 0, bufferLength);
+            bufferLength = 0;
+        }
+        buffer[bufferLength++] = c;
+    }
+
+    @Override
+    public void flush() throws IOException {
+        out.write(buffer, 0, bufferLength);
+        bufferLength = 0;
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        // An unterminated "<!-" is text
+        if (state == State.MARKUP) {
+            flushWhitespace();
+            for (int i = 0; i < markup.length(); i++)
+                emit(markup.charAt(i));
+        }
+        flushWhitespace();
+        flush();
+        out.close();
+    }
+}
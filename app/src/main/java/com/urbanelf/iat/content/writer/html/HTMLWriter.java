@@ -20,11 +20,16 @@
 package com.urbanelf.iat.content.writer.html;
 
 import com.urbanelf.iat.Core;
+import com.urbanelf.iat.content.ArchiveFormat;
 import com.urbanelf.iat.content.model.Content;
 import com.urbanelf.iat.content.model.UserData;
+import com.urbanelf.iat.content.parser.ParserDispatcher;
+import com.urbanelf.iat.content.parser.StreamingContentSpec;
+import com.urbanelf.iat.content.writer.ExportProgress;
 import com.urbanelf.iat.content.writer.Writer;
+import com.urbanelf.iat.proto.constants.ContentType;
 import com.urbanelf.iat.util.ResourceUtils;
-import com.urbanelf.iat.util.URLUtils;
+import com.urbanelf.iat.util.StringUtils;
 
 import org.thymeleaf.TemplateEngine;
 import org.thymeleaf.templatemode.TemplateMode;
@@ -32,22 +37,28 @@ import org.thymeleaf.templateresolver.ClassLoaderTemplateResolver;
 
 import java.io.File;
 import java.io.IOException;
-import java.net.URI;
-import java.net.http.HttpClient;
-import java.net.http.HttpRequest;
-import java.net.http.HttpResponse;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 public abstract class HTMLWriter extends Writer {
     protected static final String TAG = HTMLWriter.class.getSimpleName();
 
     protected static final String PATH_PREFIX = "templates/html/";
+    // Under the export's resource directory
+    protected static final String IMAGE_DIRECTORY = "img";
+    private static final int MAX_LOGGED_FAILURES = 10;
 
     private static final TemplateEngine TEMPLATE_ENGINE;
 
+    private final boolean zip;
+
     static {
         TEMPLATE_ENGINE = new TemplateEngine();
         final ClassLoaderTemplateResolver resolver = new ClassLoaderTemplateResolver();
@@ -55,38 +66,244 @@ public abstract class HTMLWriter extends Writer {
         resolver.setPrefix(PATH_PREFIX);
         resolver.setSuffix(".html");
         resolver.setCharacterEncoding("UTF-8");
+        // Parsed templates are kept for the whole session (they only change with the build)
+        resolver.setCacheable(true);
+        resolver.setCacheTTLMs(null);
         TEMPLATE_ENGINE.setTemplateResolver(resolver);
     }
 
+    protected HTMLWriter() {
+        this(false);
+    }
+
+    /**
+     * @param zip Write the export into a single ZIP file (see {@link ZipExportTree}) instead of a directory
+     */
+    protected HTMLWriter(boolean zip) {
+        this.zip = zip;
+    }
+
+    protected boolean isZip() {
+        return zip;
+    }
+
+    /**
+     * @return Writer splitting posts into pages following {@code pagination}, this writer if it does not paginate
+     */
+    public HTMLWriter withPagination(Pagination pagination) {
+        return this;
+    }
+
+    /**
+     * Renders the templates of every HTML writer once, with placeholder data, so that the first
+     * export does not pay for template parsing and expression compilation. Meant for a background thread.
+     */
+    public static void warmUpTemplates() {
+        final long start = System.nanoTime();
+        for (ContentType type : ContentType.values()) {
+            if (type.getWriterMap().get(ArchiveFormat.HTML) instanceof HTMLWriter writer) {
+                try {
+                    writer.warmUp(TEMPLATE_ENGINE);
+                } catch (RuntimeException e) {
+                    // Not fatal, templates are parsed on first export instead
+                    Core.warning(TAG, "Failed to warm up " + type + " templates: " + e.getMessage());
+                }
+            }
+        }
+        Core.info(TAG, "Warmed up templates [" + (System.nanoTime() - start) / 1_000_000 + "ms]");
+    }
+
+    /**
+     * Processes this writer's templates into a discarding writer (see {@link #warmUpTemplates()}).
+     */
+    protected void warmUp(TemplateEngine engine) {
+    }
+
     @Override
     protected File write(Content content, File dst) throws IOException {
-        return writeHTML(TEMPLATE_ENGINE, content, dst);
+        return write(content, dst, ExportProgress.NONE);
     }
 
-    public abstract File writeHTML(TemplateEngine engine, Content content, File dst) throws IOException;
+    @Override
+    protected File write(StreamingContentSpec spec, File dst) throws IOException {
+        return write(spec, dst, ExportProgress.NONE);
+    }
+
+    @Override
+    protected File write(Content content, File dst, ExportProgress progress) throws IOException {
+        return writeHTML(TEMPLATE_ENGINE, content, dst, progress);
+    }
+
+    @Override
+    protected File write(StreamingContentSpec spec, File dst, ExportProgress progress) throws IOException {
+        return writeHTML(TEMPLATE_ENGINE, spec, dst, progress);
+    }
+
+    /**
+     * Exports stop between pages once the calling thread is interrupted (see {@link #checkInterrupted()}).
+     */
+    public abstract File writeHTML(TemplateEngine engine, Content content, File dst,
+                                   ExportProgress progress) throws IOException;
+
+    public File writeHTML(TemplateEngine engine, StreamingContentSpec spec, File dst,
+                          ExportProgress progress) throws IOException {
+        // No streaming path, materialize the whole archive (packed, only read once)
+        progress.setStage("Reading archive");
+        return writeHTML(engine, ParserDispatcher.process(spec.file(), true).content(), dst, progress);
+    }
+
+    /**
+     * @throws InterruptedIOException If the export was cancelled
+     */
+    protected static void checkInterrupted() throws InterruptedIOException {
+        if (Thread.currentThread().isInterrupted())
+            throw new InterruptedIOException("Export cancelled");
+    }
+
+    /**
+     * @param sourceId Identifies the exported archive, stored in the {@link ExportManifest}
+     * @return Destination of an export to {@code dst}, the caller closes it. A directory holding a previous
+     * export of the same archive (with a manifest naming {@code sourceId}) is reused, so that unchanged pages
+     * are not rewritten; an export of another archive with the same title gets a directory of its own
+     */
+    protected ExportTree createExportTree(File dst, String sourceId) throws IOException {
+        if (zip)
+            return new ZipExportTree(dst);
+        // Same candidates as resolveDestinationDirectory, in order
+        final String baseName = StringUtils.removeExtension(dst.getName());
+        for (int i = 0; true; i++) {
+            final File directory = new File(dst.getParentFile(), baseName + (i == 0 ? "" : " (" + i + ")"));
+            if (!directory.exists())
+                break;
+            final DirectoryExportTree tree = new DirectoryExportTree(directory);
+            if (sourceId.equals(ExportManifest.read(tree).getSourceId()))
+                return tree;
+        }
+        final File dstDirectory = resolveDestinationDirectory(dst);
+        dstDirectory.mkdirs();
+        return new DirectoryExportTree(dstDirectory);
+    }
 
-    protected void processUserData(HashMap<String, UserData> userData, Path resPath) {
+    /**
+     * @return Name of the entry page of an export to {@code dst}
+     */
+    protected static String getIndexName(File dst) {
+        return StringUtils.removeExtension(dst.getName()) + ".html";
+    }
+
+    protected void processUserData(HashMap<String, UserData> userData, Path resPath) throws IOException {
+        final ArrayList<String> avatarUrls = new ArrayList<>();
+        userData.values().forEach(value -> avatarUrls.add(value.getAvatarUrl()));
+
+        // Avatars are shared between exports through the asset cache
+        final AssetCache cache = openAssetCache();
+        final AvatarDownloader.Result result;
+        try {
+            result = new AvatarDownloader(cache).download(avatarUrls, resPath);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while downloading avatars");
+        }
+        saveAssetCache(cache);
+
+        // Update user data
+        final ArrayList<String> failures = new ArrayList<>();
         userData.forEach((key, value) -> {
-            final String avatarName = URLUtils.getResourceName(value.getAvatarUrl());
-            final HttpClient client = HttpClient.newHttpClient();
-            final HttpRequest request = HttpRequest.newBuilder()
-                    .uri(URI.create(value.getAvatarUrl()))
-                    .build();
-            try {
-                client.send(request, HttpResponse.BodyHandlers.ofFile(resPath.resolve(avatarName)));
-            } catch (IOException | InterruptedException e) {
-                Core.warning(TAG, "");
-                return; // Continue loop
+            final Path avatar = result.downloaded().get(value.getAvatarUrl());
+            if (avatar != null) {
+                value.setAvatarUrl(Paths.get("..", resPath.getFileName().toString(),
+                        avatar.getFileName().toString()).toString());
+            } else {
+                failures.add(key + " (" + result.failures().get(value.getAvatarUrl()) + ")");
             }
-            // Update user data
-            value.setAvatarUrl(Paths.get("..", resPath.getFileName().toString(), avatarName).toString());
         });
+        if (!failures.isEmpty())
+            Core.warning(TAG, "Failed to download " + failures.size() + " of " + userData.size()
+                    + " avatars: " + String.join(", ", failures));
+    }
+
+    /**
+     * Downloads the images collected by {@code images} to the {@value #IMAGE_DIRECTORY} directory
+     * of {@code resPath}, logging progress.
+     */
+    protected void localizeImages(ContentImageLocalizer images, Path resPath,
+                                  ExportProgress progress) throws IOException {
+        final int total = images.getUrls().size();
+        if (total == 0)
+            return;
+        Core.info(TAG, "Downloading " + total + " embedded images");
+        progress.setStage("Downloading images");
+
+        final AssetCache cache = openAssetCache();
+        final Path imagePath = Files.createDirectories(resPath.resolve(IMAGE_DIRECTORY));
+        final AvatarDownloader.Result result;
+        try {
+            result = images.download(new AvatarDownloader(cache), imagePath,
+                    "../" + resPath.getFileName() + "/" + IMAGE_DIRECTORY, (completed, count) -> {
+                        logImageProgress(completed, count);
+                        progress.setProgress(completed, count);
+                    });
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while downloading images");
+        }
+        saveAssetCache(cache);
+
+        if (!result.failures().isEmpty()) {
+            final ArrayList<String> failures = new ArrayList<>();
+            result.failures().entrySet().stream()
+                    .limit(MAX_LOGGED_FAILURES)
+                    .forEach(failure -> failures.add(failure.getKey() + " (" + failure.getValue() + ")"));
+            Core.warning(TAG, "Failed to download " + result.failures().size() + " of " + total
+                    + " images, they still point at the community: " + String.join(", ", failures)
+                    + (result.failures().size() > failures.size() ? ", ..." : ""));
+        }
+    }
+
+    private static void logImageProgress(int completed, int total) {
+        // Every 10%
+        if (completed * 10 / total != (completed - 1) * 10 / total)
+            Core.info(TAG, "Downloaded " + completed + " of " + total + " images");
     }
 
-    protected void copyResources(String srcPath, Path dstPath) {
+    private static AssetCache openAssetCache() {
+        try {
+            return AssetCache.getDefault();
+        } catch (IOException e) {
+            Core.warning(TAG, "Asset cache unavailable, downloading directly: " + e.getMessage());
+            return null;
+        }
+    }
+
+    private static void saveAssetCache(AssetCache cache) {
+        if (cache == null)
+            return;
+        try {
+            cache.save();
+        } catch (IOException e) {
+            Core.warning(TAG, "Failed to save asset cache index: " + e.getMessage());
+        }
+    }
+
+    protected void copyResources(String srcPath, ExportTree tree, String directory) {
+        // Linked from the extracted copy
+        try {
+            for (Map.Entry<String, Path> resource : ResourceStore.getDefault().get(srcPath).entrySet())
+                tree.link(directory + "/" + resource.getKey(), resource.getValue());
+            return;
+        } catch (IOException e) {
+            Core.warning(TAG, "Resource store unavailable, copying resources from the classpath: " + e.getMessage());
+        }
+
         try {
             final List<String> index = ResourceUtils.loadResourceIndex(srcPath, "index.txt");
-            ResourceUtils.copyResources(srcPath, index, dstPath);
+            for (String resource : index) {
+                try (InputStream in = ClassLoader.getSystemResourceAsStream(srcPath + "/" + resource)) {
+                    if (in == null)
+                        throw new IOException("Resource not found: " + srcPath + "/" + resource);
+                    tree.write(directory + "/" + resource, in);
+                }
+            }
         } catch (IOException e) {
             Core.fatal(TAG, "Failed to resolve internal resources", e);
             throw new RuntimeException(e);
@@ -19,113 +19,529 @@
 
 package com.urbanelf.iat.content.writer.html;
 
+import com.urbanelf.iat.Core;
+import com.urbanelf.iat.Version;
+import com.urbanelf.iat.content.model.AuthorTable;
 import com.urbanelf.iat.content.model.Content;
 import com.urbanelf.iat.content.model.PostContent;
 import com.urbanelf.iat.content.model.Post;
 import com.urbanelf.iat.content.model.UserData;
+import com.urbanelf.iat.content.parser.PageCursor;
+import com.urbanelf.iat.content.parser.StreamingContentSpec;
+import com.urbanelf.iat.content.writer.ExportProgress;
+import com.urbanelf.iat.util.HashUtils;
+import com.urbanelf.iat.util.LocalStorage;
 import com.urbanelf.iat.util.NumberUtils;
 
+import org.json.JSONArray;
 import org.json.JSONObject;
 import org.thymeleaf.TemplateEngine;
 import org.thymeleaf.context.Context;
 
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
 import java.io.File;
-import java.io.FileWriter;
 import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
 import java.io.Writer;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
-import java.util.ArrayList;
+import java.util.ArrayDeque;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 
 public class MessengerHTMLWriter extends HTMLWriter {
     private static final String RES_PATH = PATH_PREFIX + "messenger/res";
     // Path prefix is automatically prepended by engine ↓
     private static final String INDEX_TEMPLATE_PATH = "messenger/index";
     private static final String PAGE_TEMPLATE_PATH =  "messenger/page";
+    // Pages queued per render thread (bounds the number of decoded pages held at once)
+    private static final int PAGES_PER_THREAD = 4;
+    private static final int RENDER_BUFFER_SIZE = 1 << 16;
+
+    private final int renderThreads;
+    private final PageRenderer renderer;
+    private final Pagination pagination;
+    private final Minify minify;
+
+    public MessengerHTMLWriter() {
+        this(Options.DEFAULT);
+    }
+
+    public MessengerHTMLWriter(Options options) {
+        super(options.zip());
+        this.renderThreads = Math.max(1, options.renderThreads());
+        this.renderer = options.renderer();
+        this.pagination = options.pagination();
+        this.minify = options.minify();
+    }
+
+    public Options getOptions() {
+        return new Options(renderThreads, renderer, isZip(), pagination, minify);
+    }
 
     @Override
-    public File writeHTML(TemplateEngine engine, Content content, File dst) throws IOException {
+    public HTMLWriter withPagination(Pagination pagination) {
+        if (pagination.equals(this.pagination))
+            return this;
+        return new MessengerHTMLWriter(getOptions().withPagination(pagination));
+    }
+
+    @Override
+    public File writeHTML(TemplateEngine engine, Content content, File dst,
+                          ExportProgress progress) throws IOException {
         // Content should always be PostContent for messengers
         final PostContent postContent = (PostContent) content;
+        final List<List<? extends Post>> pages = postContent.getPages();
 
-        // Establish destination directory
-        final File dstDirectory = resolveDestinationDirectory(dst);
-        // Build hierarchy
-        dstDirectory.mkdirs();
-        final File resDirectory = new File(dstDirectory, "res");
-        resDirectory.mkdir();
-        final Path resPath = resDirectory.toPath();
-        final File pageDirectory = new File(dstDirectory, "page");
-        pageDirectory.mkdir();
-
-        // Create context
-        final Context context = new Context();
+        progress.setStage("Scanning pages");
+        try (Scan scan = new Scan()) {
+            scan.addAll(new PageChunker(pages.iterator(), pagination));
+            return writeHTML(engine, postContent, new PageChunker(pages.iterator(), pagination), scan,
+                    dst, progress);
+        }
+    }
 
-        // Generic access fields
-        final ArrayList<ArrayList<? extends Post>> pages = postContent.getPages();
-        final HashMap<String, UserData> userData = postContent.getUserData();
+    @Override
+    public File writeHTML(TemplateEngine engine, StreamingContentSpec spec, File dst,
+                          ExportProgress progress) throws IOException {
+        // Header only, pages are decoded from spec.file() one at a time
+        final PostContent postContent = (PostContent) spec.content();
 
-        // Process user data (localize avatar paths, etc)
-        processUserData(userData, resPath);
+        // First pass (the manifest needs the page count before the first page is rendered)
+        progress.setStage("Scanning pages");
+        try (Scan scan = new Scan()) {
+            try (PageCursor cursor = spec.openPages()) {
+                scan.addAll(new PageChunker(cursor, pagination));
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
 
-        // Populate generic fields
-        context.setVariable("title", postContent.getTitle());
-        context.setVariable("userData", userData);
+            try (PageCursor cursor = spec.openPages()) {
+                return writeHTML(engine, postContent, new PageChunker(cursor, pagination), scan, dst, progress);
+            }
+        }
+    }
 
-        // Statistics
-        final int totalPosts = pages.stream()
-                .mapToInt(List::size)
-                .sum();
-        final String statistics = userData.size()
-                + " participant" + (userData.size() == 1 ? "" : "s")
-                + " \u2022 " + NumberUtils.formatDelimiter(totalPosts) + " posts";
-        // Set variable
-        context.setVariable("stats", statistics);
+    private File writeHTML(TemplateEngine engine, PostContent postContent,
+                           Iterator<? extends List<? extends Post>> pages, Scan scan,
+                           File dst, ExportProgress progress) throws IOException {
+        final int totalPages = scan.totalPages;
+        final ContentImageLocalizer images = scan.images;
+        final String sourceId = hashSource(postContent, scan.firstLink);
+        try (ExportTree tree = createExportTree(dst, sourceId)) {
+            // Avatars are downloaded to disk, then moved into the tree
+            final Path resPath = tree.stage("res");
 
-        // Render page partials
-        try {
-            final AtomicInteger counter = new AtomicInteger(1);
-            pages.forEach(page -> {
-                // Manifest
-                final JSONObject manifest = new JSONObject();
-                manifest.put("totalPages", pages.size());
-                manifest.put("page", counter.get());
-                context.setVariable("manifest", manifest.toString(4));
-
-                // Update page
-                context.setVariable("posts", page);
-
-                // Render page
-                try (Writer writer = new FileWriter(new File(pageDirectory, counter.get() + ".html"),
-                        StandardCharsets.UTF_8)) {
-                    engine.process(PAGE_TEMPLATE_PATH, context, writer);
-                } catch (IOException e) {
-                    // Smuggle exception
-                    throw new RuntimeException(e);
+            // Generic access fields
+            final HashMap<String, UserData> userData = postContent.getUserData();
+
+            // Process user data (localize avatar paths, etc)
+            progress.setStage("Downloading avatars");
+            processUserData(userData, resPath);
+            // Localize images embedded in posts
+            localizeImages(images, resPath, progress);
+
+            // Statistics
+            final String statistics = userData.size()
+                    + " participant" + (userData.size() == 1 ? "" : "s")
+                    + " \u2022 " + NumberUtils.formatDelimiter(scan.totalPosts) + " posts";
+
+            // Hashes of the previous export into this tree, if any (removed until the new one is complete)
+            final ExportManifest previous = ExportManifest.read(tree);
+            tree.delete(ExportManifest.FILE_NAME);
+            final ExportManifest current = new ExportManifest(sourceId, totalPages);
+            final AtomicInteger written = new AtomicInteger();
+            final AtomicInteger completed = new AtomicInteger();
+            progress.setStage("Rendering pages");
+            progress.setProgress(0, totalPages);
+
+            // Render page partials (one model per page, pages may be rendered concurrently)
+            final ExecutorService executor = renderThreads > 1 ? Executors.newFixedThreadPool(renderThreads) : null;
+            // Pending renders, in page order
+            final ArrayDeque<Future<Void>> pending = new ArrayDeque<>();
+            try {
+                int pageNumber = 1;
+                while (pages.hasNext()) {
+                    checkInterrupted();
+
+                    // Manifest (export-wide values are in export.js)
+                    final JSONObject manifest = new JSONObject();
+                    manifest.put("page", pageNumber);
+
+                    // Authors not in the header may have been registered while decoding the page
+                    final List<? extends Post> posts = images.localize(pages.next());
+                    final Page page = new Page(postContent.getTitle(), userData, manifest.toString(4),
+                            posts, postContent.getAuthors().getUserDataArray());
+
+                    // Render page
+                    final int number = pageNumber;
+                    if (executor == null) {
+                        writePage(engine, tree, page, number, previous, current, written);
+                        progress.setProgress(completed.incrementAndGet(), totalPages);
+                    } else {
+                        pending.add(executor.submit(() -> {
+                            writePage(engine, tree, page, number, previous, current, written);
+                            progress.setProgress(completed.incrementAndGet(), totalPages);
+                            return null;
+                        }));
+                        if (pending.size() >= renderThreads * PAGES_PER_THREAD)
+                            await(pending.poll());
+                    }
+                    pageNumber++;
                 }
+                while (!pending.isEmpty())
+                    await(pending.poll());
+            } catch (UncheckedIOException e) {
+                // Page decoding
+                throw e.getCause();
+            } finally {
+                if (executor != null)
+                    shutdown(executor);
+            }
+
+            // Pages left over from a longer previous export
+            for (int i = totalPages + 1; i <= previous.getPageCount(); i++)
+                tree.delete("page/" + i + ".html");
+            if (previous.getPageCount() > 0)
+                Core.info(TAG, "Rewrote " + written.get() + " of " + totalPages + " pages");
+
+            progress.setStage("Writing search index");
+
+            // Export-wide values, shared by every page
+            final JSONObject exportManifest = new JSONObject();
+            exportManifest.put("totalPages", totalPages);
+            exportManifest.put("stats", statistics);
+            // Offline search index
+            exportManifest.put("searchShards", scan.index.write(tree, "res/search"));
+            // Where the community's pages went, for #original-N links (see pagination.js)
+            if (!pagination.isOriginal())
+                exportManifest.put("originalPages", new JSONArray(scan.sourcePages));
+            tree.write("page/export.js", ("window.exportManifest = " + exportManifest.toString(4) + ";\n")
+                    .getBytes(StandardCharsets.UTF_8));
+
+            final List<String> unknownAuthors = postContent.getAuthors().getUnknownAuthors();
+            if (!unknownAuthors.isEmpty())
+                Core.warning(TAG, "Authors missing from user data: " + String.join(", ", unknownAuthors));
+
+            // Copy resources (COMMENT OUT WHILE DEBUGGING JS/CSS)
+            copyResources(RES_PATH, tree, "res");
+
+            // Render template
+            final ByteArrayOutputStream index = new ByteArrayOutputStream();
+            try (Writer writer = openWriter(index)) {
+                engine.process(INDEX_TEMPLATE_PATH, new Context(), writer);
+            }
+            tree.write(getIndexName(dst), index.toByteArray());
+
+            // Last, an interrupted export leaves no manifest and is rewritten in full next time
+            tree.write(ExportManifest.FILE_NAME, current.toBytes());
+            tree.commit();
+
+            return tree.getLocation();
+        }
+    }
+
+    @Override
+    protected void warmUp(TemplateEngine engine) {
+        // One post exercises the article fragment and its expressions (or the precompiled renderer's code)
+        final AuthorTable authors = new AuthorTable(new HashMap<>());
+        final Page page = new Page("", new HashMap<>(), new JSONObject().put("page", 1).toString(4),
+                List.of(new Post(authors, "", "", "", "")), authors.getUserDataArray());
+        try {
+            renderPage(engine, page, Writer.nullWriter());
+        } catch (IOException e) {
+            // Not thrown by the null writer
+            throw new UncheckedIOException(e);
+        }
+        engine.process(INDEX_TEMPLATE_PATH, new Context(), Writer.nullWriter());
+    }
 
-                // Increment counter
-                counter.getAndIncrement();
+    /**
+     * Renders and writes a page, unless the tree already holds it with the same content.
+     */
+    private void writePage(TemplateEngine engine, ExportTree tree, Page page, int pageNumber,
+                           ExportManifest previous, ExportManifest current, AtomicInteger written) throws IOException {
+        final String hash = hashPage(page, minify.isEnabled());
+        current.setPageHash(pageNumber, hash);
+        final String pagePath = "page/" + pageNumber + ".html";
+        if (hash.equals(previous.getPageHash(pageNumber)) && tree.exists(pagePath))
+            return;
+        tree.write(pagePath, renderPage(engine, page));
+        written.incrementAndGet();
+    }
+
+    /**
+     * @return SHA-256 identifying the exported conversation across re-exports: its title and the link of
+     * its first post (which holds the conversation's address)
+     */
+    static String hashSource(PostContent content, String firstLink) {
+        return HashUtils.hashChunksSHA256(chunk -> {
+            chunk.accept(content.getTitle().getBytes(StandardCharsets.UTF_8));
+            chunk.accept(firstLink != null ? firstLink.getBytes(StandardCharsets.UTF_8) : null);
+        });
+    }
+
+    /**
+     * @return SHA-256 over everything the page template reads, the output options
+     * and the application version (for template changes)
+     */
+    static String hashPage(Page page, boolean minified) {
+        return HashUtils.hashChunksSHA256(chunk -> {
+            final Consumer<String> field = value ->
+                    chunk.accept(value != null ? value.getBytes(StandardCharsets.UTF_8) : null);
+            field.accept(Version.VERSION);
+            field.accept(minified ? "minified" : "");
+            field.accept(page.title());
+            field.accept(page.manifest());
+            page.userData().forEach((name, data) -> {
+                field.accept(name);
+                field.accept(data.getProfileUrl());
+                field.accept(data.getAvatarUrl());
             });
-        } catch (RuntimeException ex) {
-            if (ex.getCause() instanceof IOException) {
-                throw (IOException) ex.getCause(); // unwrap it
+            for (Post post : page.posts()) {
+                final UserData author = page.authors()[post.getAuthorId()];
+                field.accept(post.getAuthor());
+                field.accept(author.getProfileUrl());
+                field.accept(author.getAvatarUrl());
+                field.accept(post.getDateTime());
+                field.accept(post.getLink());
+                field.accept(post.getContent());
+            }
+        });
+    }
+
+    private byte[] renderPage(TemplateEngine engine, Page page) throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream(RENDER_BUFFER_SIZE);
+        try (Writer writer = openWriter(out)) {
+            renderPage(engine, page, writer);
+        }
+        return out.toByteArray();
+    }
+
+    private Writer openWriter(ByteArrayOutputStream out) {
+        final Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+        return minify.isEnabled() ? new HTMLMinifyingWriter(writer) : writer;
+    }
+
+    public void renderPage(TemplateEngine engine, Page page, Writer writer) throws IOException {
+        if (renderer.isPrecompiled()) {
+            MessengerPageRenderer.render(writer, page.title(), page.userData(), page.manifest(),
+                    page.posts(), page.authors());
+            return;
+        }
+
+        final Context context = new Context();
+        context.setVariable("title", page.title());
+        context.setVariable("userData", page.userData());
+        context.setVariable("manifest", page.manifest());
+        context.setVariable("posts", page.posts());
+        context.setVariable("authors", page.authors());
+        engine.process(PAGE_TEMPLATE_PATH, context, writer);
+    }
+
+    /**
+     * Stops the render pool and waits for renders already running, so a cancelled export does not
+     * return (and close its tree) while pages are still being written.
+     */
+    private static void shutdown(ExecutorService executor) {
+        executor.shutdownNow();
+        boolean interrupted = false;
+        while (true) {
+            try {
+                if (executor.awaitTermination(1, TimeUnit.SECONDS))
+                    break;
+            } catch (InterruptedException e) {
+                // Cancelled exports are interrupted, wait anyway
+                interrupted = true;
+            }
+        }
+        if (interrupted)
+            Thread.currentThread().interrupt();
+    }
+
+    private static void await(Future<Void> render) throws IOException {
+        try {
+            render.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while rendering pages");
+        } catch (ExecutionException e) {
+            // Rethrow as the serial path would
+            if (e.getCause() instanceof IOException ioException)
+                throw ioException;
+            if (e.getCause() instanceof RuntimeException runtimeException)
+                throw runtimeException;
+            throw new IOException(e.getCause());
+        }
+    }
+
+    /**
+     * Output options of a {@link MessengerHTMLWriter}, start from {@link #DEFAULT}.
+     *
+     * @param renderThreads Number of threads rendering pages concurrently (1 renders on the calling thread)
+     * @param renderer      Renders pages (same output either way, the index is always rendered by the engine)
+     * @param zip           Write the export into a single ZIP file instead of a directory
+     * @param pagination    How posts are split into pages
+     * @param minify        Whether rendered pages pass through {@link HTMLMinifyingWriter}
+     */
+    public record Options(int renderThreads, PageRenderer renderer, boolean zip, Pagination pagination,
+                          Minify minify) {
+        public static final Options DEFAULT = new Options(1, PageRenderer.TEMPLATE_ENGINE, false,
+                Pagination.ORIGINAL, Minify.OFF);
+
+        public Options withRenderThreads(int renderThreads) {
+            return new Options(renderThreads, renderer, zip, pagination, minify);
+        }
+
+        public Options withRenderer(PageRenderer renderer) {
+            return new Options(renderThreads, renderer, zip, pagination, minify);
+        }
+
+        public Options withZip(boolean zip) {
+            return new Options(renderThreads, renderer, zip, pagination, minify);
+        }
+
+        public Options withPagination(Pagination pagination) {
+            return new Options(renderThreads, renderer, zip, pagination, minify);
+        }
+
+        public Options withMinify(Minify minify) {
+            return new Options(renderThreads, renderer, zip, pagination, minify);
+        }
+    }
+
+    public enum PageRenderer {
+        /**
+         * Thymeleaf, {@code messenger/page.html}
+         */
+        TEMPLATE_ENGINE,
+        /**
+         * {@link MessengerPageRenderer}
+         */
+        PRECOMPILED,
+        /**
+         * Chosen by the {@value #PRECOMPILED_PROPERTY} system property, else the {@value #LS_PRECOMPILED}
+         * local storage entry, else the template engine. Read on first use.
+         */
+        CONFIGURED;
+
+        public static final String PRECOMPILED_PROPERTY = "iat.precompiledRenderer";
+        public static final String LS_PRECOMPILED = "precompiled_renderer";
+
+        public boolean isPrecompiled() {
+            return switch (this) {
+                case TEMPLATE_ENGINE -> false;
+                case PRECOMPILED -> true;
+                case CONFIGURED -> Configuration.PRECOMPILED;
+            };
+        }
+
+        // Loaded (and local storage read) on the first export that asks for it
+        private static class Configuration {
+            private static final boolean PRECOMPILED;
+
+            static {
+                final String property = System.getProperty(PRECOMPILED_PROPERTY);
+                if (property != null)
+                    PRECOMPILED = Boolean.parseBoolean(property);
+                else
+                    PRECOMPILED = LocalStorage.getJsonObject().optBoolean(LS_PRECOMPILED, false);
+                Core.info(TAG, "Rendering pages with " + (PRECOMPILED ? "the precompiled renderer" : "the template engine"));
+            }
+        }
+    }
+
+    public enum Minify {
+        OFF,
+        ON,
+        /**
+         * Chosen by the {@value #MINIFY_PROPERTY} system property, else the {@value #LS_MINIFY}
+         * local storage entry, else off. Read on first use.
+         */
+        CONFIGURED;
+
+        public static final String MINIFY_PROPERTY = "iat.minifyPages";
+        public static final String LS_MINIFY = "minify_pages";
+
+        public boolean isEnabled() {
+            return switch (this) {
+                case OFF -> false;
+                case ON -> true;
+                case CONFIGURED -> Configuration.MINIFY;
+            };
+        }
+
+        // Loaded (and local storage read) on the first export that asks for it
+        private static class Configuration {
+            private static final boolean MINIFY;
+
+            static {
+                final String property = System.getProperty(MINIFY_PROPERTY);
+                if (property != null)
+                    MINIFY = Boolean.parseBoolean(property);
+                else
+                    MINIFY = LocalStorage.getJsonObject().optBoolean(LS_MINIFY, false);
+                Core.info(TAG, "Page minification " + (MINIFY ? "enabled" : "disabled"));
             }
-            throw ex;
         }
+    }
 
-        // Copy resources (COMMENT OUT WHILE DEBUGGING JS/CSS)
-        copyResources(RES_PATH, resPath);
+    /**
+     * Variables of the page template.
+     */
+    public record Page(String title, Map<String, UserData> userData, String manifest,
+                       List<? extends Post> posts, UserData[] authors) {
+    }
+
+    /**
+     * What the export needs from a first pass over the pages: statistics, embedded images and the search index.
+     */
+    private static class Scan implements Closeable {
+        private final ContentImageLocalizer images = new ContentImageLocalizer();
+        private final SearchIndexBuilder index = new SearchIndexBuilder();
+        private List<int[]> sourcePages = List.of();
+        private String firstLink;
+        private int totalPages;
+        private int totalPosts;
 
-        // Render template
-        try (Writer writer = new FileWriter(new File(dstDirectory, dst.getName()),
-                StandardCharsets.UTF_8)) {
-            engine.process(INDEX_TEMPLATE_PATH, new Context(), writer);
+        Scan() throws IOException {
         }
 
-        return dstDirectory;
+        void addAll(PageChunker pages) throws IOException {
+            while (pages.hasNext()) {
+                checkInterrupted();
+                add(pages.next());
+            }
+            sourcePages = pages.getSourcePages();
+        }
+
+        void add(List<? extends Post> page) throws IOException {
+            if (firstLink == null && !page.isEmpty())
+                firstLink = page.get(0).getLink();
+            totalPages++;
+            for (int i = 0; i < page.size(); i++) {
+                final String content = page.get(i).getContent();
+                images.collect(content);
+                index.add(totalPages, i, content);
+            }
+            totalPosts += page.size();
+        }
+
+        @Override
+        public void close() throws IOException {
+            index.close();
+        }
     }
 }
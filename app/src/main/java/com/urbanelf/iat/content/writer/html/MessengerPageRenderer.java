@@ -0,0 +1,269 @@
+/*
+ * This file is part of Invision Archive Tools (IAT).
+ *
+ * Copyright (C) 2025 Mark Fisher
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see https://www.gnu.org/licenses/.
+ */
+
+package com.urbanelf.iat.content.writer.html;
+
+import com.urbanelf.iat.content.model.Post;
+import com.urbanelf.iat.content.model.UserData;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Hand-compiled form of the messenger/page template (with the messenger/article fragment inlined),
+ * producing the same bytes as the Thymeleaf engine without evaluating expressions per post.
+ * <p>
+ * Any change to page.html or article.html must be mirrored here,
+ * MessengerPageRendererTest compares both renderers.
+ */
+final class MessengerPageRenderer {
+    // Static template text, between the template's expressions
+    private static final String HEAD = "<!DOCTYPE html>\n" +
+            "<html lang=\"en\" data-theme=\"light\">\n" +
+            "<head>\n" +
+            "    <meta charset=\"UTF-8\" />\n" +
+            "    <meta name=\"viewport\" content=\"width=device-width, initial-scale=1.0\" />\n" +
+            "    <title>";
+
+    private static final String HEAD_SCRIPTS = "</title>\n" +
+            "    <link rel=\"stylesheet\" href=\"https://cdnjs.cloudflare.com/ajax/libs/font-awesome/6.5.0/css/all.min.css\">\n" +
+            "    <link rel=\"stylesheet\" href=\"../res/main.css\">\n" +
+            "    <link rel=\"stylesheet\" href=\"../res/main.css\">\n" +
+            "    <link rel=\"stylesheet\" href=\"../res/blockquote.css\">\n" +
+            "    <link rel=\"stylesheet\" href=\"../res/common.css\">\n" +
+            "    <!-- Manifest -->\n" +
+            "    <script id=\"manifest-json\" type=\"application/json\">";
+
+    private static final String HEADER = "</script>\n" +
+            "    <script defer>\n" +
+            "        function toggleTheme() {\n" +
+            "            const current = document.documentElement.getAttribute(\"data-theme\");\n" +
+            "            const next = current === \"light\" ? \"dark\" : \"light\";\n" +
+            "            document.documentElement.setAttribute(\"data-theme\", next);\n" +
+            "            localStorage.setItem(\"theme\", next);\n" +
+            "        }\n" +
+            "\n" +
+            "        // Try to load the theme from localStorage\n" +
+            "        const savedTheme = localStorage.getItem(\"theme\");\n" +
+            "        if (savedTheme) {\n" +
+            "            document.documentElement.setAttribute(\"data-theme\", savedTheme);\n" +
+            "        }\n" +
+            "\n" +
+            "        document.addEventListener(\"DOMContentLoaded\", function () {\n" +
+            "            document.querySelectorAll('article a[href]').forEach(link => {\n" +
+            "                const isExternal = !link.getAttribute('target'); // skip if already set\n" +
+            "                if (isExternal) {\n" +
+            "                    link.setAttribute('target', '_blank');\n" +
+            "                    link.setAttribute('rel', 'noopener noreferrer'); // security best practice\n" +
+            "                }\n" +
+            "            });\n" +
+            "        });\n" +
+            "        \n" +
+            "        document.addEventListener('DOMContentLoaded', () => {\n" +
+            "\t\t    const backToTopBtn = document.getElementById('aXenBackTopBottom');\n" +
+            "\t\t    const threshold = 200;\n" +
+            "\n" +
+            "\t\t    backToTopBtn.addEventListener('click', () => {\n" +
+            "\t\t\t    window.scrollTo({ top: 0, behavior: 'smooth' });\n" +
+            "\t\t    });\n" +
+            "\n" +
+            "\t\t    window.addEventListener('scroll', () => {\n" +
+            "\t\t\t    if (window.scrollY > threshold) {\n" +
+            "\t\t\t\t    backToTopBtn.style.opacity = 1;\n" +
+            "\t\t\t    } else {\n" +
+            "\t\t\t\t    backToTopBtn.style.opacity = 0;\n" +
+            "\t\t\t    }\n" +
+            "\t\t    });\n" +
+            "\t    });\n" +
+            "    </script>\n" +
+            "</head>\n" +
+            "<body>\n" +
+            "<header>\n" +
+            "    <div class=\"title\">\n" +
+            "        <div class=\"flex\">\n" +
+            "            <i class=\"fa-solid fa-envelope\"></i>\n" +
+            "            <h2>";
+
+    private static final String PARTICIPANTS = "</h2>\n" +
+            "        </div>\n" +
+            "        <button id=\"theme-toggle\" onclick=\"toggleTheme()\" class=\"theme-toggle-btn\" aria-label=\"Toggle theme\">\n" +
+            "            <i class=\"fa-solid fa-moon\"></i>\n" +
+            "        </button>\n" +
+            "    </div>\n" +
+            "    <div class=\"content\">\n" +
+            "        <div class=\"participants-container\">\n" +
+            "            <div class=\"participants\">\n" +
+            "                ";
+
+    private static final String POSTS = "\n" +
+            "            </div>\n" +
+            "            <span class=\"stats\"></span>\n" +
+            "        </div>\n" +
+            "        <div class=\"search\">\n" +
+            "            <input id=\"search-input\" type=\"search\" placeholder=\"Search this archive\" aria-label=\"Search this archive\">\n" +
+            "            <div id=\"search-results\"></div>\n" +
+            "        </div>\n" +
+            "    </div>\n" +
+            "</header>\n" +
+            "\n" +
+            "<main>\n" +
+            "    <div class=\"pagination-controls\" style=\"margin-bottom: 2rem;\"></div>\n" +
+            "    <div id=\"post-container\">\n" +
+            "        ";
+
+    private static final String FOOTER = "\n" +
+            "    </div>\n" +
+            "    <div class=\"pagination-controls\" style=\"margin-top: 2rem;\"></div>\n" +
+            "    <a id=\"aXenBackTopBottom\" style=\"opacity: 0; pointer-events: all;\"><i class=\"fas fa-chevron-up\"></i></a>\n" +
+            "</main>\n" +
+            "\n" +
+            "<footer>\n" +
+            "    <p>\u00A9 Copyright 2025 Urban-Elf. Themes inspired by <a target=\"_blank\" href=\"https://invisioncommunity.com\" style=\"text-decoration: none; font-weight: 600;\">Invision Community</a>.</p>\n" +
+            "    <div class=\"socials\">\n" +
+            "        <a target=\"_blank\" href=\"https://github.com/Urban-Elf/InvisionArchiveTools\"><i class=\"social fa-brands fa-github\"></i></a>\n" +
+            "        <a target=\"_blank\" href=\"mailto:iat.legacy037@aleeas.com\"><i class=\"fa-solid fa-at\"></i></a>\n" +
+            "        <a href=\"https://www.catholicharbor.com/messenger/compose/?to=7190\"><i class=\"social fa-solid fa-envelope\"></i></a>\n" +
+            "    </div>\n" +
+            "</footer>\n" +
+            "\n" +
+            "<script src=\"export.js\" defer></script>\n" +
+            "<script src=\"../res/pagination.js\" defer></script>\n" +
+            "<script src=\"../res/blockquote.js\" defer></script>\n" +
+            "<script src=\"../res/timestamp.js\" defer></script>\n" +
+            "<script src=\"../res/search.js\" defer></script>\n" +
+            "\n" +
+            "</body>\n" +
+            "</html>\n" +
+            "\n" +
+            "\n";
+
+    // Whitespace preceding th:each elements, repeated between iterations
+    private static final String PARTICIPANT_SEPARATOR = "\n                ";
+    private static final String POST_SEPARATOR = "\n        ";
+
+    private MessengerPageRenderer() {
+    }
+
+    static void render(Writer writer, String title, Map<String, UserData> userData, String manifest,
+                       List<? extends Post> posts, UserData[] authors) throws IOException {
+        writer.write(HEAD);
+        writeEscaped(writer, title);
+        writer.write(HEAD_SCRIPTS);
+        writer.write(manifest);
+        writer.write(HEADER);
+        writeEscaped(writer, title);
+        writer.write(PARTICIPANTS);
+
+        boolean first = true;
+        for (Map.Entry<String, UserData> data : userData.entrySet()) {
+            if (!first)
+                writer.write(PARTICIPANT_SEPARATOR);
+            first = false;
+            writer.write("<a href=\"");
+            writeEscaped(writer, data.getValue().getProfileUrl());
+            writer.write("\" title=\"");
+            writeProfileTitle(writer, data.getKey());
+            writer.write("\" target=\"_blank\">\n                    <img class=\"avatar\" src=\"");
+            writeEscaped(writer, data.getValue().getAvatarUrl());
+            writer.write("\">\n                </a>");
+        }
+
+        writer.write(POSTS);
+
+        for (int i = 0; i < posts.size(); i++) {
+            if (i > 0)
+                writer.write(POST_SEPARATOR);
+            writer.write("<div>\n            ");
+            writeArticle(writer, posts.get(i), i, authors[posts.get(i).getAuthorId()]);
+            writer.write("\n        </div>");
+        }
+
+        writer.write(FOOTER);
+    }
+
+    private static void writeArticle(Writer writer, Post article, int page, UserData userData) throws IOException {
+        writer.write("<article data-page=\"");
+        writer.write(Integer.toString(page));
+        writer.write("\">\n            <section class=\"post-meta\">\n                <a href=\"");
+        writeEscaped(writer, userData.getProfileUrl());
+        writer.write("\" title=\"");
+        writeProfileTitle(writer, article.getAuthor());
+        writer.write("\">\n                    <img class=\"avatar\" src=\"");
+        writeEscaped(writer, userData.getAvatarUrl());
+        writer.write("\">\n                </a>\n"
+                + "                <div class=\"post-info-container\">\n"
+                + "                    <div class=\"post-info\">\n"
+                + "                        <a class=\"post-author\" href=\"");
+        writeEscaped(writer, userData.getProfileUrl());
+        writer.write("\" title=\"");
+        writeProfileTitle(writer, article.getAuthor());
+        writer.write("\">\n                            <strong>");
+        writeEscaped(writer, article.getAuthor());
+        writer.write("</strong>\n                        </a>\n                        <time datetime=\"");
+        writeEscaped(writer, article.getDateTime());
+        writer.write("\" class=\"time-ago\"></time>\n"
+                + "                    </div>\n"
+                + "                    <a class=\"post-link\" href=\"");
+        writeEscaped(writer, article.getLink());
+        writer.write("\"><i class=\"fa fa-share\"></i></a>\n"
+                + "                </div>\n"
+                + "            </section>\n"
+                + "            <section class=\"post-content\">");
+        // th:utext, unescaped
+        final String content = article.getContent();
+        if (content != null)
+            writer.write(content);
+        writer.write("</section>\n        </article>");
+    }
+
+    // 'Go to ' + name + '\'s profile'
+    private static void writeProfileTitle(Writer writer, String name) throws IOException {
+        writer.write("Go to ");
+        writeEscaped(writer, name);
+        writer.write("&#39;s profile");
+    }
+
+    /**
+     * Escapes markup-significant characters the way Thymeleaf does for th:text and attribute values
+     * (HTML4 named references, falling back to decimal ones).
+     */
+    static void writeEscaped(Writer writer, String text) throws IOException {
+        if (text == null)
+            return;
+        int start = 0;
+        for (int i = 0; i < text.length(); i++) {
+            final String reference = switch (text.charAt(i)) {
+                case '&' -> "&amp;";
+                case '<' -> "&lt;";
+                case '>' -> "&gt;";
+                case '"' -> "&quot;";
+                case '\'' -> "&#39;";
+                default -> null;
+            };
+            if (reference != null) {
+                writer.write(text, start, i - start);
+                writer.write(reference);
+                start = i + 1;
+            }
+        }
+        writer.write(text, start, text.length() - start);
+    }
+}
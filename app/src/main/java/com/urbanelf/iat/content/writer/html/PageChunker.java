@@ -0,0 +1,117 @@
+/*
+ * This file is part of Invision Archive Tools (IAT).
+ *
+ * Copyright (C) 2025 Mark Fisher
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see https://www.gnu.org/licenses/.
+ */
+
+package com.urbanelf.iat.content.writer.html;
+
+import com.urbanelf.iat.content.model.Post;
+import com.urbanelf.iat.util.StringUtils;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Splits a stream of pages into export pages following a {@link Pagination}, holding at most
+ * one source page at a time. The split only depends on the posts, so the scan and render passes
+ * over the same archive agree on it.
+ */
+public class PageChunker implements Iterator<List<? extends Post>> {
+    // Rough size of the article markup around a post's content
+    public static final int POST_OVERHEAD = 768;
+
+    private final Iterator<? extends List<? extends Post>> pages;
+    private final Pagination pagination;
+    // (export page, post index) of the first post of each source page
+    private final ArrayList<int[]> sourcePages = new ArrayList<>();
+
+    private List<? extends Post> source = List.of();
+    private int sourceIndex;
+    // Source pages whose first post is not placed yet
+    private int pendingSourcePages;
+    private int pageNumber;
+
+    public PageChunker(Iterator<? extends List<? extends Post>> pages, Pagination pagination) {
+        this.pages = pages;
+        this.pagination = pagination;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (pagination.isOriginal())
+            return pages.hasNext();
+        return fill();
+    }
+
+    @Override
+    public List<? extends Post> next() {
+        if (pagination.isOriginal()) {
+            final List<? extends Post> page = pages.next();
+            sourcePages.add(new int[]{++pageNumber, 0});
+            return page;
+        }
+        if (!fill())
+            throw new NoSuchElementException();
+
+        final ArrayList<Post> page = new ArrayList<>();
+        long bytes = 0;
+        while (fill()) {
+            final Post post = source.get(sourceIndex);
+            final long size = estimateSize(post);
+            if (!page.isEmpty() && ((pagination.maxPosts() > 0 && page.size() >= pagination.maxPosts())
+                    || (pagination.maxBytes() > 0 && bytes + size > pagination.maxBytes())))
+                break;
+            for (; pendingSourcePages > 0; pendingSourcePages--)
+                sourcePages.add(new int[]{pageNumber + 1, page.size()});
+            page.add(post);
+            sourceIndex++;
+            bytes += size;
+        }
+        pageNumber++;
+        return page;
+    }
+
+    /**
+     * @return Whether a post is left, skipping empty source pages
+     */
+    private boolean fill() {
+        while (sourceIndex == source.size() && pages.hasNext()) {
+            source = pages.next();
+            sourceIndex = 0;
+            pendingSourcePages++;
+        }
+        return sourceIndex < source.size();
+    }
+
+    static long estimateSize(Post post) {
+        final String content = post.getContent();
+        return POST_OVERHEAD + (content == null ? 0 : StringUtils.utf8Length(content));
+    }
+
+    /**
+     * @return For each source page consumed so far, the export page and post index its first post went to
+     * (empty trailing pages point at the start of the last page)
+     */
+    public List<int[]> getSourcePages() {
+        final ArrayList<int[]> result = new ArrayList<>(sourcePages);
+        for (int i = 0; i < pendingSourcePages; i++)
+            result.add(new int[]{Math.max(1, pageNumber), 0});
+        return result;
+    }
+}
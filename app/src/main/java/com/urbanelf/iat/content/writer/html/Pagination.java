@@ -0,0 +1,65 @@
+/*
+ * This file is part of Invision Archive Tools (IAT).
+ *
+ * Copyright (C) 2025 Mark Fisher
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see https://www.gnu.org/licenses/.
+ */
+
+package com.urbanelf.iat.content.writer.html;
+
+import com.urbanelf.iat.util.NumberUtils;
+
+/**
+ * How the posts of an HTML export are split into pages. The original pagination of the community
+ * is kept unless a bound is set, otherwise posts are re-chunked into pages holding at most
+ * {@code maxPosts} posts and about {@code maxBytes} of post markup (0 leaves a bound unset).
+ * <p>
+ * The byte bound is approximate: a post counts as the UTF-8 length of its content plus a fixed
+ * allowance for the markup around it ({@link PageChunker#POST_OVERHEAD}), so rendered pages can
+ * be somewhat larger or smaller. A post larger than the bound gets a page of its own.
+ */
+public record Pagination(int maxPosts, long maxBytes) {
+    public static final Pagination ORIGINAL = new Pagination(0, 0);
+
+    /**
+     * Offered by the export dialog (byte bounds are approximate, see above).
+     */
+    public static final Pagination[] PRESETS = {
+            ORIGINAL,
+            new Pagination(100, 2 << 20),
+            new Pagination(50, 1 << 20),
+            new Pagination(25, 512 << 10)
+    };
+
+    public Pagination {
+        if (maxPosts < 0 || maxBytes < 0)
+            throw new IllegalArgumentException("Negative page bound");
+    }
+
+    public boolean isOriginal() {
+        return maxPosts == 0 && maxBytes == 0;
+    }
+
+    @Override
+    public String toString() {
+        if (isOriginal())
+            return "Original pages";
+        if (maxBytes == 0)
+            return maxPosts + " posts";
+        if (maxPosts == 0)
+            return NumberUtils.formatBytes(maxBytes);
+        return maxPosts + " posts or " + NumberUtils.formatBytes(maxBytes);
+    }
+}
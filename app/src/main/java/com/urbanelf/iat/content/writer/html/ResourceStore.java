@@ -0,0 +1,145 @@
+/*
+ * This file is part of Invision Archive Tools (IAT).
+ *
+ * Copyright (C) 2025 Mark Fisher
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see https://www.gnu.org/licenses/.
+ */
+
+package com.urbanelf.iat.content.writer.html;
+
+import com.urbanelf.iat.Version;
+import com.urbanelf.iat.util.FileTree;
+import com.urbanelf.iat.util.HashUtils;
+import com.urbanelf.iat.util.ResourceUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Extracted copy of the static export resources (stylesheets, scripts), so that exports link files
+ * instead of decompressing them from the jar each time.
+ * <p>
+ * Each resource directory is extracted under a hash of its classpath content (index and files), a build
+ * that changes any resource extracts a fresh copy even if the application version stayed the same.
+ * Exports may hard-link these files, they must never be modified in place.
+ */
+public class ResourceStore {
+    private static final String INDEX_FILE_NAME = "index.txt";
+    // Written last, holds the extracted index
+    private static final String COMPLETE_FILE_NAME = ".complete";
+    // Hex digits of the content hash naming an extracted copy
+    private static final int HASH_LENGTH = 16;
+
+    // Resource directory -> content hash (the classpath does not change while running)
+    private static final Map<String, String> RESOURCE_HASHES = new HashMap<>();
+
+    private static ResourceStore defaultStore;
+
+    private final Path directory;
+    // Resource directory -> relative path -> extracted file
+    private final Map<String, Map<String, Path>> extracted = new LinkedHashMap<>();
+
+    /**
+     * @param directory Directory of this version's resources
+     */
+    public ResourceStore(Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * @return The store of this version under {@link FileTree#getRootPath()}, older versions are deleted
+     */
+    public static synchronized ResourceStore getDefault() throws IOException {
+        if (defaultStore == null) {
+            final Path root = FileTree.getRootPath().resolve("resources");
+            final Path directory = root.resolve(Version.VERSION);
+            Files.createDirectories(directory);
+            try (Stream<Path> versions = Files.list(root)) {
+                for (Path version : versions.toList()) {
+                    if (!version.equals(directory))
+                        FileTree.deleteRecursively(version);
+                }
+            }
+            defaultStore = new ResourceStore(directory);
+        }
+        return defaultStore;
+    }
+
+    /**
+     * @param srcPath Resource directory on the classpath, listing its files in {@value #INDEX_FILE_NAME}
+     * @return Extracted files by path relative to {@code srcPath}, in index order (extracted on first use,
+     * or when the classpath content changed)
+     */
+    public synchronized Map<String, Path> get(String srcPath) throws IOException {
+        Map<String, Path> files = extracted.get(srcPath);
+        if (files != null)
+            return files;
+
+        final List<String> index = ResourceUtils.loadResourceIndex(srcPath, INDEX_FILE_NAME);
+        final Path parentPath = directory.resolve(srcPath);
+        final Path dstPath = parentPath.resolve(hashResources(srcPath, index));
+        final Path complete = dstPath.resolve(COMPLETE_FILE_NAME);
+        if (!Files.isRegularFile(complete)) {
+            // Missing or interrupted, (re)extract everything
+            ResourceUtils.copyResources(srcPath, index, dstPath);
+            Files.write(complete, index, StandardCharsets.UTF_8);
+        }
+        // Copies of other builds (exports that hard-linked them keep their own links)
+        try (Stream<Path> copies = Files.list(parentPath)) {
+            for (Path copy : copies.toList()) {
+                if (!copy.equals(dstPath))
+                    FileTree.deleteRecursively(copy);
+            }
+        }
+
+        files = new LinkedHashMap<>();
+        for (String resource : index)
+            files.put(resource, dstPath.resolve(resource));
+        extracted.put(srcPath, files);
+        return files;
+    }
+
+    /**
+     * @return Hash of the resource names and contents listed in {@code index}, as read from the classpath
+     * (computed once per run)
+     */
+    private static String hashResources(String srcPath, List<String> index) throws IOException {
+        synchronized (RESOURCE_HASHES) {
+            String hash = RESOURCE_HASHES.get(srcPath);
+            if (hash == null) {
+                hash = HashUtils.hashChunksSHA256(chunk -> {
+                    for (String resource : index) {
+                        chunk.accept(resource.getBytes(StandardCharsets.UTF_8));
+                        try (InputStream in = ClassLoader.getSystemResourceAsStream(srcPath + "/" + resource)) {
+                            if (in == null)
+                                throw new IOException("Resource not found: " + srcPath + "/" + resource);
+                            chunk.accept(in.readAllBytes());
+                        }
+                    }
+                }).substring(0, HASH_LENGTH);
+                RESOURCE_HASHES.put(srcPath, hash);
+            }
+            return hash;
+        }
+    }
+}
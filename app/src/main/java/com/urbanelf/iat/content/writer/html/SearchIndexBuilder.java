@@ -0,0 +1,245 @@
+/*
+ * This file is part of Invision Archive Tools (IAT).
+ *
+ * Copyright (C) 2025 Mark Fisher
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see https://www.gnu.org/licenses/.
+ */
+
+package com.urbanelf.iat.content.writer.html;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.regex.MatchResult;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Builds the offline search index of an HTML export: an inverted index from tokens to the posts containing
+ * them, split into shards by token hash so that search.js only loads the shards a query needs.
+ * <p>
+ * Postings are spilled to temporary bucket files as posts are added, then grouped one shard at a time,
+ * so memory is bounded by the largest shard rather than the archive. Tokenization and hashing must match
+ * search.js.
+ */
+public class SearchIndexBuilder implements Closeable {
+    public static final int MIN_TOKEN_LENGTH = 2;
+    public static final int MAX_TOKEN_LENGTH = 40;
+    // Upper bound of the shard count, shards are groups of buckets
+    private static final int BUCKET_COUNT = 256;
+    private static final int TARGET_POSTINGS_PER_SHARD = 50_000;
+    private static final int BUCKET_BUFFER_SIZE = 8192;
+
+    private static final Pattern TAG = Pattern.compile("<[^>]*>");
+    private static final Pattern ENTITY = Pattern.compile("&(?:#([0-9]{1,7})|#[xX]([0-9a-fA-F]{1,6})|[a-zA-Z]+);");
+    private static final Pattern SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private final Path spillPath;
+    private final DataOutputStream[] buckets = new DataOutputStream[BUCKET_COUNT];
+    private long postingCount;
+
+    public SearchIndexBuilder() throws IOException {
+        spillPath = Files.createTempDirectory("iat-search");
+    }
+
+    /**
+     * Indexes a post. Pages must be added in increasing order.
+     *
+     * @param page 1-based page number
+     * @param post Index of the post in its page
+     */
+    public void add(int page, int post, String html) throws IOException {
+        for (String token : tokenize(html)) {
+            final int bucket = Integer.remainderUnsigned(hash(token), BUCKET_COUNT);
+            if (buckets[bucket] == null) {
+                buckets[bucket] = new DataOutputStream(new BufferedOutputStream(
+                        Files.newOutputStream(spillPath.resolve(Integer.toString(bucket))), BUCKET_BUFFER_SIZE));
+            }
+            buckets[bucket].writeUTF(token);
+            buckets[bucket].writeInt(page);
+            buckets[bucket].writeInt(post);
+            postingCount++;
+        }
+    }
+
+    /**
+     * @return Distinct tokens of the text of {@code html}
+     */
+    static Set<String> tokenize(String html) {
+        final LinkedHashSet<String> tokens = new LinkedHashSet<>();
+        if (html == null)
+            return tokens;
+        String text = TAG.matcher(html).replaceAll(" ");
+        text = ENTITY.matcher(text).replaceAll(SearchIndexBuilder::decodeEntity);
+        for (String token : SEPARATOR.split(text.toLowerCase(Locale.ROOT))) {
+            if (token.length() >= MIN_TOKEN_LENGTH && token.length() <= MAX_TOKEN_LENGTH)
+                tokens.add(token);
+        }
+        return tokens;
+    }
+
+    // Numeric references may be letters, named ones are punctuation or spaces for the most part
+    private static String decodeEntity(MatchResult entity) {
+        try {
+            final int codePoint;
+            if (entity.group(1) != null)
+                codePoint = Integer.parseInt(entity.group(1));
+            else if (entity.group(2) != null)
+                codePoint = Integer.parseInt(entity.group(2), 16);
+            else
+                return " ";
+            return Matcher.quoteReplacement(new String(Character.toChars(codePoint)));
+        } catch (IllegalArgumentException e) {
+            return " ";
+        }
+    }
+
+    /**
+     * FNV-1a over UTF-16 code units.
+     */
+    static int hash(String token) {
+        int hash = 0x811c9dc5;
+        for (int i = 0; i < token.length(); i++) {
+            hash ^= token.charAt(i);
+            hash *= 0x01000193;
+        }
+        return hash;
+    }
+
+    /**
+     * @return Number of shards the index is written in (a power of two dividing the bucket count)
+     */
+    public int getShardCount() {
+        int shards = 1;
+        while (shards < BUCKET_COUNT && (long) shards * TARGET_POSTINGS_PER_SHARD < postingCount)
+            shards <<= 1;
+        return shards;
+    }
+
+    /**
+     * Writes the shards to {@code directory}/<i>n</i>.js, each calling {@code searchIndex.addShard}
+     * with the postings of its tokens ({@code [page delta, post, ...]}).
+     *
+     * @return Number of shards written
+     */
+    public int write(ExportTree tree, String directory) throws IOException {
+        closeBuckets();
+        final int shardCount = getShardCount();
+        for (int shard = 0; shard < shardCount; shard++) {
+            // Sorted for reproducible output
+            final TreeMap<String, Postings> postings = new TreeMap<>();
+            for (int bucket = shard; bucket < BUCKET_COUNT; bucket += shardCount)
+                readBucket(bucket, postings);
+
+            final StringBuilder builder = new StringBuilder("searchIndex.addShard(").append(shard).append(", {");
+            boolean first = true;
+            for (Map.Entry<String, Postings> entry : postings.entrySet()) {
+                if (!first)
+                    builder.append(',');
+                first = false;
+                // Tokens are letters and digits only, nothing to escape
+                builder.append('"').append(entry.getKey()).append("\":");
+                entry.getValue().appendTo(builder);
+            }
+            builder.append("});\n");
+            tree.write(directory + "/" + shard + ".js", builder.toString().getBytes(StandardCharsets.UTF_8));
+        }
+        // Shards of a previous, larger index
+        for (int shard = shardCount; shard < BUCKET_COUNT; shard++)
+            tree.delete(directory + "/" + shard + ".js");
+        return shardCount;
+    }
+
+    private void readBucket(int bucket, TreeMap<String, Postings> postings) throws IOException {
+        final Path file = spillPath.resolve(Integer.toString(bucket));
+        if (!Files.exists(file))
+            return;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            while (true) {
+                final String token;
+                try {
+                    token = in.readUTF();
+                } catch (EOFException e) {
+                    break;
+                }
+                postings.computeIfAbsent(token, t -> new Postings()).add(in.readInt(), in.readInt());
+            }
+        }
+    }
+
+    private void closeBuckets() throws IOException {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            if (buckets[i] != null) {
+                buckets[i].close();
+                buckets[i] = null;
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            closeBuckets();
+        } finally {
+            try (Stream<Path> walk = Files.walk(spillPath)) {
+                // Children before parents
+                for (Path path : walk.sorted(Comparator.reverseOrder()).toList())
+                    Files.deleteIfExists(path);
+            }
+        }
+    }
+
+    /**
+     * Delta-encoded postings of a token.
+     */
+    private static class Postings {
+        private int[] values = new int[4];
+        private int size;
+        private int lastPage;
+
+        void add(int page, int post) {
+            if (size + 2 > values.length)
+                values = Arrays.copyOf(values, values.length * 2);
+            values[size++] = page - lastPage;
+            values[size++] = post;
+            lastPage = page;
+        }
+
+        void appendTo(StringBuilder builder) {
+            builder.append('[');
+            for (int i = 0; i < size; i++) {
+                if (i > 0)
+                    builder.append(',');
+                builder.append(values[i]);
+            }
+            builder.append(']');
+        }
+    }
+}
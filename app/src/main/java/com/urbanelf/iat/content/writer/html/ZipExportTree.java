@@ -0,0 +1,188 @@
+/*
+ * This file is part of Invision Archive Tools (IAT).
+ *
+ * Copyright (C) 2025 Mark Fisher
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see https://www.gnu.org/licenses/.
+ */
+
+package com.urbanelf.iat.content.writer.html;
+
+import com.urbanelf.iat.util.StringUtils;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Streams the export into a single ZIP file, under a root directory named after it
+ * (so that extracting it gives the same tree as a directory export).
+ * Entries are written whole, in the order they complete.
+ * <p>
+ * The archive is written next to its destination and only moved into place once the tree is
+ * {@link #commit() committed}, a failed or cancelled export leaves no truncated ZIP behind.
+ */
+public class ZipExportTree implements ExportTree {
+    private static final int BUFFER_SIZE = 1 << 16;
+    // Already compressed, deflating them only costs time
+    private static final Set<String> STORED_EXTENSIONS = Set.of(
+            "png", "jpg", "jpeg", "gif", "webp", "avif", "woff", "woff2", "gz", "zip");
+
+    private final File file;
+    private final Path partialPath;
+    private final String root;
+    private final ZipOutputStream out;
+    // Directories staged on disk, added when the tree is closed
+    private final List<String> stagedDirectories = new ArrayList<>();
+    private Path stagingPath;
+    private boolean committed;
+
+    public ZipExportTree(File file) throws IOException {
+        this.file = file;
+        this.partialPath = Files.createTempFile(file.getAbsoluteFile().getParentFile().toPath(), file.getName(), ".part");
+        this.root = StringUtils.removeExtension(file.getName()) + '/';
+        this.out = new ZipOutputStream(new BufferedOutputStream(new FileOutputStream(partialPath.toFile()), BUFFER_SIZE));
+    }
+
+    static boolean isStored(String path) {
+        final int dot = path.lastIndexOf('.');
+        return dot >= 0 && STORED_EXTENSIONS.contains(path.substring(dot + 1).toLowerCase(Locale.ROOT));
+    }
+
+    @Override
+    public synchronized void write(String path, byte[] data) throws IOException {
+        final ZipEntry entry = new ZipEntry(root + path);
+        if (isStored(path)) {
+            // Stored entries need their size and checksum up front
+            final CRC32 crc = new CRC32();
+            crc.update(data);
+            entry.setMethod(ZipEntry.STORED);
+            entry.setSize(data.length);
+            entry.setCompressedSize(data.length);
+            entry.setCrc(crc.getValue());
+        }
+        out.putNextEntry(entry);
+        out.write(data);
+        out.closeEntry();
+    }
+
+    @Override
+    public void write(String path, InputStream in) throws IOException {
+        write(path, in.readAllBytes());
+    }
+
+    @Override
+    public void link(String path, Path file) throws IOException {
+        write(path, Files.readAllBytes(file));
+    }
+
+    // Always a new file, nothing to read back
+
+    @Override
+    public boolean exists(String path) {
+        return false;
+    }
+
+    @Override
+    public byte[] read(String path) {
+        return null;
+    }
+
+    @Override
+    public void delete(String path) {
+    }
+
+    @Override
+    public synchronized Path stage(String directory) throws IOException {
+        if (stagingPath == null)
+            stagingPath = Files.createTempDirectory("iat-export");
+        stagedDirectories.add(directory);
+        return Files.createDirectories(stagingPath.resolve(directory));
+    }
+
+    @Override
+    public File getLocation() {
+        return file.getParentFile();
+    }
+
+    @Override
+    public synchronized void commit() {
+        committed = true;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        boolean complete = false;
+        try {
+            if (committed) {
+                for (String directory : stagedDirectories) {
+                    final Path stagedPath = stagingPath.resolve(directory);
+                    final List<Path> files;
+                    try (Stream<Path> walk = Files.walk(stagedPath)) {
+                        files = walk.filter(Files::isRegularFile).sorted().toList();
+                    }
+                    for (Path staged : files) {
+                        final String relative = stagedPath.relativize(staged).toString().replace(File.separatorChar, '/');
+                        write(directory + '/' + relative, Files.readAllBytes(staged));
+                    }
+                }
+            }
+            out.close();
+            if (committed) {
+                moveIntoPlace();
+                complete = true;
+            }
+        } finally {
+            if (!complete) {
+                // Failed, cancelled or not committed
+                try {
+                    out.close();
+                } catch (IOException ignored) {
+                    // Discarded anyway
+                }
+                Files.deleteIfExists(partialPath);
+            }
+            if (stagingPath != null) {
+                try (Stream<Path> walk = Files.walk(stagingPath)) {
+                    // Children before parents
+                    for (Path path : walk.sorted(Comparator.reverseOrder()).toList())
+                        Files.deleteIfExists(path);
+                }
+            }
+        }
+    }
+
+    private void moveIntoPlace() throws IOException {
+        try {
+            Files.move(partialPath, file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(partialPath, file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+}
@@ -20,16 +20,26 @@
 package com.urbanelf.iat.proto.constants;
 
 import com.urbanelf.iat.content.ArchiveFormat;
-import com.urbanelf.iat.content.parser.PostParser;
 import com.urbanelf.iat.content.parser.Parser;
+import com.urbanelf.iat.content.parser.PullPostParser;
 import com.urbanelf.iat.content.parser.TopicPostParser;
+import com.urbanelf.iat.content.writer.BinaryWriter;
 import com.urbanelf.iat.content.writer.Writer;
 import com.urbanelf.iat.content.writer.html.MessengerHTMLWriter;
 
 import java.util.HashMap;
 
 public enum ContentType {
-    MESSENGER(new PostParser()) {{ getWriterMap().put(ArchiveFormat.HTML, new MessengerHTMLWriter()); }},
+    MESSENGER(new PullPostParser(Runtime.getRuntime().availableProcessors())) {{
+        // Pages are rendered and minified as configured (template engine, not minified by default)
+        final MessengerHTMLWriter.Options html = MessengerHTMLWriter.Options.DEFAULT
+                .withRenderThreads(Runtime.getRuntime().availableProcessors())
+                .withRenderer(MessengerHTMLWriter.PageRenderer.CONFIGURED)
+                .withMinify(MessengerHTMLWriter.Minify.CONFIGURED);
+        getWriterMap().put(ArchiveFormat.HTML, new MessengerHTMLWriter(html));
+        getWriterMap().put(ArchiveFormat.HTML_ZIP, new MessengerHTMLWriter(html.withZip(true)));
+        getWriterMap().put(ArchiveFormat.BINARY, new BinaryWriter(this));
+    }},
     TOPIC(new TopicPostParser()) {{  }},
     FORUM(null),
     BLOG_ENTRY(null);
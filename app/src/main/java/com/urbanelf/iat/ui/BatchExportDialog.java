@@ -0,0 +1,510 @@
+/*
+ * This file is part of Invision Archive Tools (IAT).
+ *
+ * Copyright (C) 2025 Mark Fisher
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see https://www.gnu.org/licenses/.
+ */
+
+package com.urbanelf.iat.ui;
+
+import com.urbanelf.iat.Core;
+import com.urbanelf.iat.content.ArchiveFormat;
+import com.urbanelf.iat.content.parser.ArchiveDescriptor;
+import com.urbanelf.iat.content.parser.IndexedArchiveReader;
+import com.urbanelf.iat.content.parser.ParserDispatcher;
+import com.urbanelf.iat.content.writer.ExportProgress;
+import com.urbanelf.iat.content.writer.ExportService;
+import com.urbanelf.iat.content.writer.html.Pagination;
+import com.urbanelf.iat.util.NumberUtils;
+import com.urbanelf.iat.util.StringUtils;
+
+import org.json.JSONException;
+
+import java.awt.BorderLayout;
+import java.awt.Desktop;
+import java.awt.Dimension;
+import java.awt.FlowLayout;
+import java.awt.Window;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+import javax.swing.BorderFactory;
+import javax.swing.Box;
+import javax.swing.BoxLayout;
+import javax.swing.JButton;
+import javax.swing.JComboBox;
+import javax.swing.JDialog;
+import javax.swing.JLabel;
+import javax.swing.JOptionPane;
+import javax.swing.JPanel;
+import javax.swing.JProgressBar;
+import javax.swing.JScrollPane;
+import javax.swing.JTable;
+import javax.swing.SwingUtilities;
+import javax.swing.SwingWorker;
+import javax.swing.Timer;
+import javax.swing.WindowConstants;
+import javax.swing.table.AbstractTableModel;
+
+import javafx.application.Platform;
+
+/**
+ * Lists the unexported archives left by earlier sessions and exports the selected ones at once,
+ * into a single directory, on the {@link ExportService} (which bounds how many run concurrently).
+ */
+public class BatchExportDialog extends JDialog {
+    private static final String TAG = BatchExportDialog.class.getSimpleName();
+
+    private static final int REFRESH_INTERVAL = 200;
+    private static final String[] COLUMNS = {"", "Title", "Type", "Pages", "Size", "Status"};
+
+    private final List<Entry> entries = new ArrayList<>();
+    private final EntryTableModel tableModel;
+    private final JComboBox<ArchiveFormat> formatBox;
+    private final JComboBox<Pagination> paginationBox;
+    private final JButton discardButton;
+    private final JButton exportButton;
+    private final JButton closeButton;
+    private final JProgressBar progressBar;
+    private final JLabel progressLabel;
+    private final Timer refreshTimer;
+
+    // Current batch (EDT only)
+    private final List<Entry> batch = new ArrayList<>();
+    private final List<Future<File>> tasks = new ArrayList<>();
+    private File batchDirectory;
+
+    public BatchExportDialog(Window owner, List<Path> archives) {
+        super(owner, "Recovery", ModalityType.MODELESS);
+        setDefaultCloseOperation(WindowConstants.DO_NOTHING_ON_CLOSE);
+
+        for (Path archive : archives)
+            entries.add(new Entry(archive));
+
+        tableModel = new EntryTableModel();
+        final JTable table = new JTable(tableModel);
+        table.setFillsViewportHeight(true);
+        table.getColumnModel().getColumn(0).setMaxWidth(32);
+        table.getColumnModel().getColumn(1).setPreferredWidth(260);
+        table.getColumnModel().getColumn(5).setPreferredWidth(180);
+        final JScrollPane scrollPane = new JScrollPane(table);
+        scrollPane.setPreferredSize(new Dimension(720, 280));
+
+        formatBox = new JComboBox<>(ArchiveFormat.values());
+        paginationBox = new JComboBox<>(Pagination.PRESETS);
+        formatBox.addActionListener(e -> paginationBox.setEnabled(isPaginated()));
+
+        final JPanel optionsPanel = new JPanel();
+        optionsPanel.setLayout(new BoxLayout(optionsPanel, BoxLayout.X_AXIS));
+        optionsPanel.add(new JLabel("File Format: "));
+        optionsPanel.add(Box.createHorizontalStrut(4));
+        optionsPanel.add(formatBox);
+        optionsPanel.add(Box.createHorizontalStrut(12));
+        optionsPanel.add(new JLabel("Page Size: "));
+        optionsPanel.add(Box.createHorizontalStrut(4));
+        optionsPanel.add(paginationBox);
+
+        progressBar = new JProgressBar();
+        progressLabel = new JLabel(entries.size() + " unexported archive" + (entries.size() == 1 ? "" : "s") + " found");
+
+        discardButton = new JButton("Discard Selected");
+        discardButton.addActionListener(e -> discardSelected());
+        exportButton = new JButton("Export Selected");
+        exportButton.addActionListener(e -> exportSelected());
+        // Until the archives are described (titles name the exports)
+        exportButton.setEnabled(false);
+        closeButton = new JButton("Close");
+        closeButton.addActionListener(e -> close());
+        addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosing(WindowEvent e) {
+                close();
+            }
+        });
+
+        final JPanel buttonPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT, 4, 0));
+        buttonPanel.add(discardButton);
+        buttonPanel.add(exportButton);
+        buttonPanel.add(closeButton);
+
+        final JPanel southPanel = new JPanel(new BorderLayout(0, 8));
+        southPanel.add(optionsPanel, BorderLayout.NORTH);
+        southPanel.add(progressLabel, BorderLayout.CENTER);
+        final JPanel progressPanel = new JPanel(new BorderLayout(0, 8));
+        progressPanel.add(progressBar, BorderLayout.NORTH);
+        progressPanel.add(buttonPanel, BorderLayout.SOUTH);
+        southPanel.add(progressPanel, BorderLayout.SOUTH);
+
+        final JPanel panel = new JPanel(new BorderLayout(0, 8));
+        panel.setBorder(BorderFactory.createEmptyBorder(8, 8, 8, 8));
+        panel.add(new JLabel("Unexported archives were detected, select the ones to recover."), BorderLayout.NORTH);
+        panel.add(scrollPane, BorderLayout.CENTER);
+        panel.add(southPanel, BorderLayout.SOUTH);
+        setContentPane(panel);
+        pack();
+        setLocationRelativeTo(owner);
+
+        refreshTimer = new Timer(REFRESH_INTERVAL, e -> refresh());
+
+        // Describe archives (header only) while the dialog is open
+        new SwingWorker<Void, Integer>() {
+            @Override
+            protected Void doInBackground() {
+                for (int i = 0; i < entries.size(); i++) {
+                    final Entry entry = entries.get(i);
+                    try {
+                        entry.descriptor = ParserDispatcher.probe(entry.file.toFile());
+                    } catch (IOException | JSONException e) {
+                        // Reported when recovering
+                        Core.warning(TAG, "Failed to probe archive '" + entry.file.getFileName() + "': " + e.getMessage());
+                    }
+                    entry.probed = true;
+                    publish(i);
+                }
+                return null;
+            }
+
+            @Override
+            protected void process(List<Integer> rows) {
+                for (int row : rows)
+                    tableModel.fireTableRowsUpdated(row, row);
+            }
+
+            @Override
+            protected void done() {
+                exportButton.setEnabled(!isExporting());
+            }
+        }.execute();
+    }
+
+    private boolean isPaginated() {
+        return formatBox.getSelectedItem() == ArchiveFormat.HTML || formatBox.getSelectedItem() == ArchiveFormat.HTML_ZIP;
+    }
+
+    private boolean isExporting() {
+        return !tasks.isEmpty();
+    }
+
+    private List<Entry> getSelected() {
+        return entries.stream().filter(entry -> entry.selected && entry.state.isSelectable()).toList();
+    }
+
+    private void setControlsEnabled(boolean enabled) {
+        formatBox.setEnabled(enabled);
+        paginationBox.setEnabled(enabled && isPaginated());
+        discardButton.setEnabled(enabled);
+        exportButton.setEnabled(enabled);
+    }
+
+    private void exportSelected() {
+        final List<Entry> selected = getSelected();
+        if (selected.isEmpty()) {
+            JOptionPane.showMessageDialog(this, "No archives selected.", "Recovery", JOptionPane.INFORMATION_MESSAGE);
+            return;
+        }
+        final ArchiveFormat format = (ArchiveFormat) Objects.requireNonNull(formatBox.getSelectedItem());
+        final Pagination pagination = (Pagination) Objects.requireNonNull(paginationBox.getSelectedItem());
+
+        // Directory chooser runs on the FX thread
+        setControlsEnabled(false);
+        Platform.runLater(() -> {
+            final File directory = Core.chooseDirectory("Export recovered archives to...");
+            SwingUtilities.invokeLater(() -> {
+                if (directory == null) {
+                    setControlsEnabled(true);
+                    return;
+                }
+                start(selected, directory, format, pagination);
+            });
+        });
+    }
+
+    private void start(List<Entry> selected, File directory, ArchiveFormat format, Pagination pagination) {
+        batch.clear();
+        batch.addAll(selected);
+        batchDirectory = directory;
+        Core.info(TAG, "Recovering " + batch.size() + " archives to '" + directory + "'");
+
+        final HashSet<String> names = new HashSet<>();
+        for (Entry entry : batch) {
+            final File dst = resolveDestination(directory, entry.getTitle(), format, names);
+            entry.setState(State.QUEUED);
+            tasks.add(ExportService.submit(() -> entry.export(dst, format, pagination),
+                    task -> SwingUtilities.invokeLater(() -> finish(entry, task))));
+        }
+        closeButton.setText("Cancel");
+        refreshTimer.start();
+        refresh();
+    }
+
+    /**
+     * @return Destination in {@code directory} that no file, export directory or other archive of the batch uses
+     */
+    private static File resolveDestination(File directory, String title, ArchiveFormat format, HashSet<String> names) {
+        final String baseName = StringUtils.cleanFileName(title);
+        for (int i = 0; true; i++) {
+            final String name = baseName + (i == 0 ? "" : " (" + i + ")");
+            final File dst = new File(directory, name + '.' + format.getExtension());
+            if (!dst.exists() && !new File(directory, name).exists() && names.add(name))
+                return dst;
+        }
+    }
+
+    private void finish(Entry entry, Future<File> task) {
+        try {
+            task.get();
+            entry.setState(State.DONE);
+        } catch (CancellationException e) {
+            entry.setState(State.CANCELLED);
+        } catch (InterruptedException | ExecutionException e) {
+            // Done, get() does not block
+            final Throwable cause = e.getCause() != null ? e.getCause() : e;
+            Core.error(TAG, "Failed to recover archive '" + entry.file.getFileName() + "'", cause);
+            entry.error = cause.getMessage();
+            entry.setState(State.FAILED);
+        }
+        tasks.remove(task);
+        refresh();
+        if (isExporting())
+            return;
+
+        // Batch done
+        refreshTimer.stop();
+        closeButton.setText("Close");
+        setControlsEnabled(true);
+
+        final long exported = batch.stream().filter(e -> e.state == State.DONE).count();
+        final long failed = batch.stream().filter(e -> e.state == State.FAILED).count();
+        Core.info(TAG, "Recovered " + exported + " of " + batch.size() + " archives");
+        if (exported == 0 || !isDisplayable())
+            return;
+        Object[] options = {"Open Directory", "Close"};
+        int result = JOptionPane.showOptionDialog(
+                this,
+                "Exported " + exported + " of " + batch.size() + " archives."
+                        + (failed > 0 ? "\n" + failed + " failed, see the status column and the log." : ""),
+                "Recovery Finished",
+                JOptionPane.DEFAULT_OPTION,
+                failed > 0 ? JOptionPane.WARNING_MESSAGE : JOptionPane.INFORMATION_MESSAGE,
+                null,
+                options,
+                options[1]);
+        if (result == 0) {
+            try {
+                Desktop.getDesktop().open(batchDirectory);
+            } catch (IOException e) {
+                Core.error(TAG, "Failed to open output directory", e);
+            }
+        }
+    }
+
+    private void discardSelected() {
+        final List<Entry> selected = getSelected();
+        if (selected.isEmpty())
+            return;
+        Object[] options = {"Cancel", "Discard"};
+        int result = JOptionPane.showOptionDialog(
+                this,
+                "Permanently delete " + selected.size() + " archive" + (selected.size() == 1 ? "" : "s") + "?",
+                "Recovery",
+                JOptionPane.DEFAULT_OPTION,
+                JOptionPane.WARNING_MESSAGE,
+                null,
+                options,
+                options[0]);
+        if (result != 1)
+            return;
+        for (Entry entry : selected) {
+            try {
+                Files.deleteIfExists(entry.file);
+                IndexedArchiveReader.deleteIndex(entry.file.toFile());
+                entry.setState(State.DISCARDED);
+            } catch (IOException e) {
+                Core.error(TAG, "Failed to delete archive '" + entry.file.getFileName() + "'", e);
+            }
+        }
+        refresh();
+    }
+
+    private void close() {
+        if (isExporting()) {
+            // Cancel the batch, the dialog stays open until every export stopped
+            for (Future<File> task : List.copyOf(tasks))
+                task.cancel(true);
+            return;
+        }
+        dispose();
+    }
+
+    private void refresh() {
+        tableModel.fireTableRowsUpdated(0, entries.size() - 1);
+        if (batch.isEmpty())
+            return;
+        int finished = 0;
+        int running = 0;
+        int failed = 0;
+        for (Entry entry : batch) {
+            switch (entry.state) {
+                case DONE, CANCELLED -> finished++;
+                case FAILED -> {
+                    finished++;
+                    failed++;
+                }
+                case RUNNING -> running++;
+                default -> {
+                }
+            }
+        }
+        progressBar.setMaximum(batch.size());
+        progressBar.setValue(finished);
+        progressLabel.setText("Finished " + finished + " of " + batch.size() + " archives"
+                + (running > 0 ? " \u2022 " + running + " running" : "")
+                + (failed > 0 ? " \u2022 " + failed + " failed" : ""));
+    }
+
+    private enum State {
+        PENDING("Not exported"),
+        QUEUED("Queued"),
+        RUNNING(""),
+        DONE("Exported"),
+        FAILED("Failed"),
+        CANCELLED("Cancelled"),
+        DISCARDED("Discarded");
+
+        private final String label;
+
+        State(String label) {
+            this.label = label;
+        }
+
+        boolean isSelectable() {
+            return this == PENDING || this == FAILED || this == CANCELLED;
+        }
+    }
+
+    /**
+     * An archive and the progress of its export (reported from the export thread).
+     */
+    private static class Entry implements ExportProgress {
+        private final Path file;
+        // Set by the probe worker
+        private volatile ArchiveDescriptor descriptor;
+        private volatile boolean probed;
+        private boolean selected = true;
+        private volatile State state = State.PENDING;
+        private volatile String stage = "";
+        private volatile int completed;
+        private volatile int total;
+        private volatile String error;
+
+        Entry(Path file) {
+            this.file = file;
+        }
+
+        String getTitle() {
+            return descriptor != null ? descriptor.title() : StringUtils.removeExtension(file.getFileName().toString());
+        }
+
+        void setState(State state) {
+            this.state = state;
+        }
+
+        File export(File dst, ArchiveFormat format, Pagination pagination) throws IOException {
+            state = State.RUNNING;
+            return Core.exportArchive(ParserDispatcher.stream(file.toFile()), dst, format, pagination, this);
+        }
+
+        @Override
+        public void setStage(String stage) {
+            total = 0;
+            this.stage = stage;
+        }
+
+        @Override
+        public void setProgress(int completed, int total) {
+            this.completed = completed;
+            this.total = total;
+        }
+
+        String getStatus() {
+            return switch (state) {
+                case RUNNING -> {
+                    final int stageTotal = total;
+                    yield stage + (stageTotal > 0 ? " (" + completed * 100L / stageTotal + "%)" : "");
+                }
+                case FAILED -> error != null ? State.FAILED.label + ": " + error : State.FAILED.label;
+                default -> state.label;
+            };
+        }
+    }
+
+    private class EntryTableModel extends AbstractTableModel {
+        @Override
+        public int getRowCount() {
+            return entries.size();
+        }
+
+        @Override
+        public int getColumnCount() {
+            return COLUMNS.length;
+        }
+
+        @Override
+        public String getColumnName(int column) {
+            return COLUMNS[column];
+        }
+
+        @Override
+        public Class<?> getColumnClass(int column) {
+            return column == 0 ? Boolean.class : String.class;
+        }
+
+        @Override
+        public boolean isCellEditable(int row, int column) {
+            return column == 0 && !isExporting() && entries.get(row).state.isSelectable();
+        }
+
+        @Override
+        public Object getValueAt(int row, int column) {
+            final Entry entry = entries.get(row);
+            final ArchiveDescriptor descriptor = entry.descriptor;
+            return switch (column) {
+                case 0 -> entry.selected && entry.state.isSelectable();
+                case 1 -> entry.getTitle();
+                case 2 -> descriptor != null ? descriptor.type().toString() : entry.probed ? "Unreadable" : "Reading...";
+                case 3 -> descriptor != null ? NumberUtils.formatDelimiter(descriptor.pageCount()) : "";
+                case 4 -> descriptor != null ? NumberUtils.formatBytes(descriptor.size()) : "";
+                default -> entry.getStatus();
+            };
+        }
+
+        @Override
+        public void setValueAt(Object value, int row, int column) {
+            if (column == 0)
+                entries.get(row).selected = (Boolean) value;
+        }
+    }
+}
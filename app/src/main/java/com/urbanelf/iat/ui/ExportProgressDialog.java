@@ -0,0 +1,153 @@
+/*
+ * This file is part of Invision Archive Tools (IAT).
+ *
+ * Copyright (C) 2025 Mark Fisher
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see https://www.gnu.org/licenses/.
+ */
+
+package com.urbanelf.iat.ui;
+
+import com.urbanelf.iat.content.writer.ExportProgress;
+import com.urbanelf.iat.util.NumberUtils;
+
+import java.awt.BorderLayout;
+import java.awt.Dimension;
+import java.awt.FlowLayout;
+import java.awt.Window;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.util.concurrent.Future;
+
+import javax.swing.BorderFactory;
+import javax.swing.JButton;
+import javax.swing.JDialog;
+import javax.swing.JLabel;
+import javax.swing.JPanel;
+import javax.swing.JProgressBar;
+import javax.swing.Timer;
+import javax.swing.WindowConstants;
+
+/**
+ * Modeless progress of a background export, with a button cancelling it. Progress is reported from the
+ * export threads and picked up by a timer, so that page renders never wait on the EDT.
+ */
+public class ExportProgressDialog extends JDialog implements ExportProgress {
+    private static final int REFRESH_INTERVAL = 100;
+
+    private final JLabel stageLabel;
+    private final JProgressBar progressBar;
+    private final JButton cancelButton;
+    private final Timer refreshTimer;
+
+    // Reported from several threads (the dialog's monitor is taken by AWT)
+    private final Object progressLock = new Object();
+    private volatile String stage = "Starting export";
+    // Packed (completed, total), total is 0 while indeterminate
+    private volatile long progress;
+
+    private Future<?> task;
+
+    public ExportProgressDialog(Window owner, String title) {
+        super(owner, "Exporting " + title, ModalityType.MODELESS);
+        setDefaultCloseOperation(WindowConstants.DO_NOTHING_ON_CLOSE);
+        setResizable(false);
+
+        stageLabel = new JLabel(stage);
+        progressBar = new JProgressBar();
+        progressBar.setIndeterminate(true);
+        progressBar.setStringPainted(true);
+        progressBar.setString("");
+        progressBar.setPreferredSize(new Dimension(360, progressBar.getPreferredSize().height));
+
+        cancelButton = new JButton("Cancel");
+        cancelButton.addActionListener(e -> cancel());
+        addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosing(WindowEvent e) {
+                cancel();
+            }
+        });
+
+        final JPanel buttonPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT, 0, 0));
+        buttonPanel.add(cancelButton);
+
+        final JPanel panel = new JPanel(new BorderLayout(0, 8));
+        panel.setBorder(BorderFactory.createEmptyBorder(8, 8, 8, 8));
+        panel.add(stageLabel, BorderLayout.NORTH);
+        panel.add(progressBar, BorderLayout.CENTER);
+        panel.add(buttonPanel, BorderLayout.SOUTH);
+        setContentPane(panel);
+        pack();
+        setLocationRelativeTo(owner);
+
+        refreshTimer = new Timer(REFRESH_INTERVAL, e -> refresh());
+    }
+
+    /**
+     * Shows the dialog for {@code task}, which the cancel button interrupts.
+     */
+    public void start(Future<?> task) {
+        this.task = task;
+        refreshTimer.start();
+        setVisible(true);
+    }
+
+    public void finish() {
+        refreshTimer.stop();
+        dispose();
+    }
+
+    private void cancel() {
+        if (task == null || task.isDone())
+            return;
+        task.cancel(true);
+        cancelButton.setEnabled(false);
+        stage = "Cancelling";
+        refresh();
+    }
+
+    private void refresh() {
+        stageLabel.setText(stage);
+        final long packed = progress;
+        final int completed = (int) (packed >>> 32);
+        final int total = (int) packed;
+        progressBar.setIndeterminate(total == 0);
+        if (total == 0) {
+            progressBar.setString("");
+            return;
+        }
+        progressBar.setMaximum(total);
+        progressBar.setValue(completed);
+        progressBar.setString(NumberUtils.formatDelimiter(completed) + " of " + NumberUtils.formatDelimiter(total));
+    }
+
+    @Override
+    public void setStage(String stage) {
+        synchronized (progressLock) {
+            progress = 0;
+            this.stage = stage;
+        }
+    }
+
+    @Override
+    public void setProgress(int completed, int total) {
+        synchronized (progressLock) {
+            // Render threads finish out of order, never go back
+            if ((int) progress == total && (int) (progress >>> 32) >= completed)
+                return;
+            progress = (long) completed << 32 | total;
+        }
+    }
+}
@@ -21,8 +21,10 @@ package com.urbanelf.iat.ui;
 
 import com.formdev.flatlaf.extras.FlatSVGIcon;
 import com.urbanelf.iat.Core;
-import com.urbanelf.iat.content.parser.ContentSpec;
+import com.urbanelf.iat.content.parser.ArchiveDescriptor;
+import com.urbanelf.iat.content.parser.IndexedArchiveReader;
 import com.urbanelf.iat.content.parser.ParserDispatcher;
+import com.urbanelf.iat.content.parser.StreamingContentSpec;
 import com.urbanelf.iat.ic.IC;
 import com.urbanelf.iat.ic.IC4;
 import com.urbanelf.iat.ic.IC5;
@@ -31,6 +33,7 @@ import com.urbanelf.iat.ui.component.JLinkLabel;
 import com.urbanelf.iat.util.DateUtils;
 import com.urbanelf.iat.util.FileTree;
 import com.urbanelf.iat.util.LocalStorage;
+import com.urbanelf.iat.util.NumberUtils;
 import com.urbanelf.iat.util.PlatformUtils;
 import com.urbanelf.iat.util.ThemeManager;
 import com.urbanelf.iat.util.UIUtils;
@@ -62,7 +65,9 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Comparator;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
 import java.util.function.Function;
@@ -247,27 +252,67 @@ public class MainFrame extends JFrame {
         new Timer(300, e -> {
             // Handle unexported archives
             try {
-                final Stream<Path> walk = Files.walk(FileTree.getExportPath())
-                        .filter(p -> p.getFileName().toString().endsWith(".json"))
-                        .sorted(Comparator.reverseOrder()); // most recent first
-                final Iterator<Path> iterator = walk.iterator();
+                final List<Path> archives;
+                try (Stream<Path> walk = Files.walk(FileTree.getExportPath())) {
+                    archives = walk.filter(p -> p.getFileName().toString().endsWith(".json")
+                                    || p.getFileName().toString().endsWith(".json.gz")
+                                    || p.getFileName().toString().endsWith(".iab"))
+                            .sorted(Comparator.reverseOrder()) // most recent first
+                            .toList();
+                }
+                if (archives.size() > 1) {
+                    // Batch recovery, selected archives are exported concurrently
+                    Core.warning(TAG, "Found " + archives.size() + " unexported archives");
+                    new BatchExportDialog(MainFrame.this, archives).setVisible(true);
+                    ((Timer) e.getSource()).stop();
+                    return;
+                }
+                final Iterator<Path> iterator = archives.iterator();
 
                 Runnable processNext = new Runnable() {
                     @Override
                     public void run() {
-                        if (!iterator.hasNext()) {
-                            walk.close();
+                        if (!iterator.hasNext())
                             return;
-                        }
 
-                        final Runnable runnableThis = this;
                         final Path p = iterator.next();
                         Core.warning(TAG, "Found unexported archive '" + p.getFileName().toString() + "'");
 
+                        // Describe archive (header only, pages are counted off the EDT)
+                        new SwingWorker<ArchiveDescriptor, Void>() {
+                            @Override
+                            protected ArchiveDescriptor doInBackground() throws IOException, JSONException {
+                                return ParserDispatcher.probe(p.toFile());
+                            }
+
+                            @Override
+                            protected void done() {
+                                String message = "An unexported archive was detected, do you want to recover it?";
+                                try {
+                                    final ArchiveDescriptor descriptor = get();
+                                    if (descriptor != null) {
+                                        message += "\n\n" + descriptor.title() + "\n"
+                                                + descriptor.type() + " \u2022 "
+                                                + NumberUtils.formatDelimiter(descriptor.pageCount())
+                                                + " page" + (descriptor.pageCount() == 1 ? "" : "s") + " \u2022 "
+                                                + NumberUtils.formatBytes(descriptor.size());
+                                    }
+                                } catch (InterruptedException | ExecutionException e2) {
+                                    // Reported when recovering
+                                    Core.warning(TAG, "Failed to probe archive '" + p.getFileName().toString() + "': "
+                                            + (e2.getCause() != null ? e2.getCause().getMessage() : e2.getMessage()));
+                                }
+                                prompt(p, message);
+                            }
+                        }.execute();
+                    }
+
+                    private void prompt(Path p, String message) {
+                        final Runnable runnableThis = this;
                         Object[] options = {"Recover", "Discard"};
                         int result = JOptionPane.showOptionDialog(
                                 MainFrame.this,
-                                "An unexported archive was detected, do you want to recover it?",
+                                message,
                                 "Recovery",
                                 JOptionPane.DEFAULT_OPTION,
                                 JOptionPane.INFORMATION_MESSAGE,
@@ -281,9 +326,9 @@ public class MainFrame extends JFrame {
 
                                 @Override
                                 protected Void doInBackground() {
-                                    ContentSpec spec = null;
+                                    StreamingContentSpec spec = null;
                                     try {
-                                        spec = ParserDispatcher.process(p.toFile());
+                                        spec = ParserDispatcher.stream(p.toFile());
                                     } catch (IOException | JSONException e2) {
                                         SwingUtilities.invokeLater(() -> {
                                             JOptionPane.showMessageDialog(MainFrame.this,
@@ -296,14 +341,16 @@ public class MainFrame extends JFrame {
                                         // Delete file
                                         try {
                                             Files.deleteIfExists(p);
+                                            IndexedArchiveReader.deleteIndex(p.toFile());
                                         } catch (IOException e3) {
                                             Core.error(TAG, "Failed to delete archive '" + p.getFileName().toString() + "'", e3);
                                         }
                                         continueOnDone = true;
                                     }
                                     if (spec != null) {
-                                        Core.exportArchive(MainFrame.this, spec);
-                                        SwingUtilities.invokeLater(runnableThis); // continue loop
+                                        // Continue loop once the export is done
+                                        Core.exportArchive(MainFrame.this, spec).whenComplete((dst, e2) ->
+                                                SwingUtilities.invokeLater(runnableThis));
                                     }
                                     return null;
                                 }
@@ -318,6 +365,7 @@ public class MainFrame extends JFrame {
                         } else if (result == 1) {
                             try {
                                 Files.deleteIfExists(p);
+                                IndexedArchiveReader.deleteIndex(p.toFile());
                             } catch (IOException e2) {
                                 Core.error(TAG, "Failed to delete archive '" + p.getFileName().toString() + "'", e2);
                             }
@@ -20,8 +20,8 @@
 package com.urbanelf.iat.ui;
 
 import com.urbanelf.iat.Core;
-import com.urbanelf.iat.content.parser.ContentSpec;
 import com.urbanelf.iat.content.parser.ParserDispatcher;
+import com.urbanelf.iat.content.parser.StreamingContentSpec;
 import com.urbanelf.iat.ic.IC;
 import com.urbanelf.iat.ic.ICWorkerState;
 import com.urbanelf.iat.proto.ClientPacket;
@@ -74,7 +74,7 @@ public class WorkerFrame extends JFrame {
     private final WorkerType workerType;
     private final PythonServer.ServerListener serverListener;
     private String workerId;
-    private ContentSpec contentSpec;
+    private StreamingContentSpec contentSpec;
 
     private final JPanel statePanelWrapper;
     private final JPanel progressiveStatePanel;
@@ -233,8 +233,8 @@ public class WorkerFrame extends JFrame {
                         }
                         case RESULT_AVAILABLE -> {
                             final String path = (String) packet.getData().get("path");
-                            // Dispatch parser and store ContentSpec
-                            contentSpec = ParserDispatcher.process(new File(path));
+                            // Dispatch parser (header only, pages are streamed on export)
+                            contentSpec = ParserDispatcher.stream(new File(path));
                         }
                     }
                 } catch (Exception e) {
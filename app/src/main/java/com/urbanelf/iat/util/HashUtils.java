@@ -21,8 +21,14 @@ package com.urbanelf.iat.util;
 
 import com.urbanelf.iat.Core;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.function.Consumer;
 
 public class HashUtils {
     private static final String TAG = HashUtils.class.getSimpleName();
@@ -35,17 +41,64 @@ public class HashUtils {
         return hash("MD5", src);
     }
 
+    /**
+     * @return SHA-256 of the file's content
+     */
+    public static String hashFileSHA256(Path file) throws IOException {
+        try (InputStream in = Files.newInputStream(file)) {
+            final MessageDigest mg = MessageDigest.getInstance("SHA-256");
+            final byte[] buffer = new byte[8192];
+            int read;
+            while ((read = in.read(buffer)) != -1)
+                mg.update(buffer, 0, read);
+            return toHex(mg.digest());
+        } catch (NoSuchAlgorithmException e) {
+            Core.error(TAG, "Algorithm SHA-256 not found", e);
+        }
+        return "(unknown algorithm: SHA-256)";
+    }
+
+    /**
+     * @param chunks Passes each chunk to the consumer it is given; every chunk is followed by a zero
+     *               byte, so that moving bytes between neighbouring chunks changes the hash
+     *               ({@code null} hashes as an empty chunk)
+     * @return SHA-256 of the chunks
+     */
+    public static <E extends Exception> String hashChunksSHA256(ChunkWriter<E> chunks) throws E {
+        final MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            // Every Java platform is required to support SHA-256
+            throw new IllegalStateException(e);
+        }
+        chunks.write(chunk -> {
+            if (chunk != null)
+                digest.update(chunk);
+            digest.update((byte) 0);
+        });
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
     private static String hash(String algorithm, String src) {
         try {
             MessageDigest mg = MessageDigest.getInstance(algorithm);
-            byte[] result = mg.digest(src.getBytes());
-            StringBuilder sb = new StringBuilder();
-            for (byte b : result)
-                sb.append(Integer.toString((b & 0xff) + 0x100, 16).substring(1));
-            return sb.toString();
+            return toHex(mg.digest(src.getBytes()));
         } catch (NoSuchAlgorithmException e) {
             Core.error(TAG, "Algorithm " + algorithm + " not found", e);
         }
         return "(unknown algorithm: " + algorithm + ")";
     }
+
+    private static String toHex(byte[] result) {
+        StringBuilder sb = new StringBuilder();
+        for (byte b : result)
+            sb.append(Integer.toString((b & 0xff) + 0x100, 16).substring(1));
+        return sb.toString();
+    }
+
+    @FunctionalInterface
+    public interface ChunkWriter<E extends Exception> {
+        void write(Consumer<byte[]> chunk) throws E;
+    }
 }
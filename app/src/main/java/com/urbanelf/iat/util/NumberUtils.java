@@ -43,4 +43,15 @@ public class NumberUtils {
     public static String formatDelimiter(double value) {
         return DECIMAL_FORMAT.format(value);
     }
+
+    public static String formatBytes(long bytes) {
+        final String[] units = {"B", "KB", "MB", "GB", "TB"};
+        double value = bytes;
+        int unit = 0;
+        while (value >= 1024 && unit < units.length - 1) {
+            value /= 1024;
+            unit++;
+        }
+        return (unit == 0 ? String.valueOf(bytes) : String.format("%.1f", value)) + " " + units[unit];
+    }
 }
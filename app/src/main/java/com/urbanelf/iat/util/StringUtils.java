@@ -55,4 +55,27 @@ public class StringUtils {
     public static String removeExtension(String fileName) {
         return fileName.replaceAll("\\.[^.]+$", "");
     }
+
+    /**
+     * @return Length of {@code src} encoded as UTF-8, without encoding it (unpaired surrogates count
+     * as the 3 bytes of a replacement character)
+     */
+    public static long utf8Length(CharSequence src) {
+        long length = 0;
+        for (int i = 0; i < src.length(); i++) {
+            final char c = src.charAt(i);
+            if (c < 0x80) {
+                length++;
+            } else if (c < 0x800) {
+                length += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < src.length()
+                    && Character.isLowSurrogate(src.charAt(i + 1))) {
+                length += 4;
+                i++;
+            } else {
+                length += 3;
+            }
+        }
+        return length;
+    }
 }
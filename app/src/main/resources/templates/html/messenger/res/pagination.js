@@ -24,10 +24,27 @@ document.addEventListener("DOMContentLoaded", function () {
     
     if (manifest) {
         console.log("Loaded manifest:", manifest);
-        totalPages = manifest.totalPages;
         manifestPage = manifest.page;
     }
 
+    // Export-wide values live in export.js, so that pages only change with their own posts
+    const exportManifest = window.exportManifest;
+    if (exportManifest) {
+        totalPages = exportManifest.totalPages;
+        document.querySelectorAll(".stats").forEach(el => el.textContent = exportManifest.stats);
+    }
+
+    // #original-N links to page N of the community, which may have been re-chunked on export
+    const original = window.location.hash.match(/^#original-(\d+)$/);
+    if (original && exportManifest) {
+        const page = parseInt(original[1]);
+        const target = exportManifest.originalPages ? exportManifest.originalPages[page - 1] : [page, 0];
+        if (target) {
+            window.location.replace(`${target[0]}.html#post-${target[1]}`);
+            return;
+        }
+    }
+
     if (!postContainer || containers.length === 0) {
         console.warn("Missing posts container, page iframe, or pagination controls.");
         return;
@@ -0,0 +1,133 @@
+// Offline search over the index shards in ../res/search (see SearchIndexBuilder)
+window.searchIndex = {
+    callbacks: {},
+    addShard(id, postings) {
+        const callback = this.callbacks[id];
+        if (callback) callback(postings);
+    }
+};
+
+document.addEventListener("DOMContentLoaded", function () {
+    const MAX_RESULTS = 100;
+    const MIN_TOKEN_LENGTH = 2;
+    const MAX_TOKEN_LENGTH = 40;
+
+    // Scroll to the post a result links to
+    function showTarget() {
+        document.querySelectorAll("article.search-hit").forEach(el => el.classList.remove("search-hit"));
+        const target = location.hash.match(/^#post-(\d+)$/);
+        if (!target) return;
+        const article = document.querySelector(`article[data-page="${target[1]}"]`);
+        if (article) {
+            article.classList.add("search-hit");
+            article.scrollIntoView();
+        }
+    }
+    showTarget();
+    window.addEventListener("hashchange", showTarget);
+
+    const input = document.getElementById("search-input");
+    const results = document.getElementById("search-results");
+    const exportManifest = window.exportManifest;
+    if (!input || !results || !exportManifest || !exportManifest.searchShards) {
+        if (input) input.parentElement.style.display = "none";
+        return;
+    }
+
+    const shards = {};
+
+    // Shards are scripts, fetch() is not available to file:// pages
+    function loadShard(id) {
+        if (!shards[id]) {
+            shards[id] = new Promise((resolve, reject) => {
+                window.searchIndex.callbacks[id] = resolve;
+                const script = document.createElement("script");
+                script.src = `../res/search/${id}.js`;
+                script.onerror = reject;
+                document.head.appendChild(script);
+            });
+        }
+        return shards[id];
+    }
+
+    // FNV-1a over UTF-16 code units, as the index was built
+    function shardOf(token) {
+        let hash = 0x811c9dc5;
+        for (let i = 0; i < token.length; i++) {
+            hash ^= token.charCodeAt(i);
+            hash = Math.imul(hash, 0x01000193);
+        }
+        return (hash >>> 0) % exportManifest.searchShards;
+    }
+
+    function tokenize(text) {
+        return [...new Set(text.toLowerCase().split(/[^\p{L}\p{N}]+/u)
+            .filter(token => token.length >= MIN_TOKEN_LENGTH && token.length <= MAX_TOKEN_LENGTH))];
+    }
+
+    // [page delta, post, page delta, post, ...] -> ["page:post", ...]
+    function decode(postings) {
+        const hits = [];
+        let page = 0;
+        for (let i = 0; i + 1 < postings.length; i += 2) {
+            page += postings[i];
+            hits.push(page + ":" + postings[i + 1]);
+        }
+        return hits;
+    }
+
+    let generation = 0;
+
+    async function search(query) {
+        const current = ++generation;
+        const tokens = tokenize(query);
+        if (tokens.length === 0) {
+            results.textContent = "";
+            return;
+        }
+
+        let lists;
+        try {
+            lists = await Promise.all(tokens.map(token =>
+                loadShard(shardOf(token)).then(shard =>
+                    decode(Object.prototype.hasOwnProperty.call(shard, token) ? shard[token] : []))));
+        } catch (err) {
+            console.error("Error loading search index:", err);
+            return;
+        }
+        // A newer query is running
+        if (current !== generation) return;
+
+        // Posts containing every token
+        lists.sort((a, b) => a.length - b.length);
+        let hits = lists[0];
+        for (let i = 1; i < lists.length; i++) {
+            const list = new Set(lists[i]);
+            hits = hits.filter(hit => list.has(hit));
+        }
+
+        results.textContent = "";
+        if (hits.length === 0) {
+            results.textContent = "No results";
+            return;
+        }
+        hits.slice(0, MAX_RESULTS).forEach(hit => {
+            const [page, post] = hit.split(":").map(Number);
+            const link = document.createElement("a");
+            link.href = `${page}.html#post-${post}`;
+            link.textContent = `Page ${page}, post ${post + 1}`;
+            results.appendChild(link);
+        });
+        if (hits.length > MAX_RESULTS) {
+            const more = document.createElement("span");
+            more.textContent = `and ${hits.length - MAX_RESULTS} more`;
+            results.appendChild(more);
+        }
+    }
+
+    let timeout = null;
+    input.addEventListener("input", () => {
+        clearTimeout(timeout);
+        timeout = setTimeout(() => search(input.value), 200);
+    });
+});
@@ -0,0 +1,66 @@
+/*
+ * This file is part of Invision Archive Tools (IAT).
+ *
+ * Copyright (C) 2025 Mark Fisher
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see https://www.gnu.org/licenses/.
+ */
+
+package com.urbanelf.iat;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.urbanelf.iat.content.parser.ArchiveDescriptor;
+import com.urbanelf.iat.content.parser.ParserDispatcher;
+import com.urbanelf.iat.proto.constants.ContentType;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+public class ArchiveDescriptorTest {
+    private static final String HEADER = """
+            {"type":"MESSENGER","title":"Test","user_data":{"bob":{"profile_url":"","avatar_url":"","group":"","group_icon_url":""},"jim":{"profile_url":"","avatar_url":"","group":"","group_icon_url":""}}}
+            """;
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testProbe() throws IOException {
+        final File file = tempDir.resolve("archive.json").toFile();
+        Files.writeString(file.toPath(), HEADER + "{\"content\":[]}\n{\"content\":[]}\n");
+
+        final ArchiveDescriptor descriptor = ParserDispatcher.probe(file);
+        assertEquals(ContentType.MESSENGER, descriptor.type());
+        assertEquals("Test", descriptor.title());
+        assertEquals(2, descriptor.userCount());
+        assertEquals(2, descriptor.pageCount());
+        assertEquals(file.length(), descriptor.size());
+    }
+
+    @Test
+    void testProbeUnterminatedLastPage() throws IOException {
+        final File file = tempDir.resolve("archive.json").toFile();
+        Files.writeString(file.toPath(), HEADER + "{\"content\":[]}\n{\"content\":[]}");
+        assertEquals(2, ParserDispatcher.probe(file).pageCount());
+
+        Files.writeString(file.toPath(), HEADER.strip());
+        assertEquals(0, ParserDispatcher.probe(file).pageCount());
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ * This file is part of Invision Archive Tools (IAT).
+ *
+ * Copyright (C) 2025 Mark Fisher
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see https://www.gnu.org/licenses/.
+ */
+
+package com.urbanelf.iat;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.sun.net.httpserver.HttpServer;
+import com.urbanelf.iat.content.writer.html.AssetCache;
+import com.urbanelf.iat.content.writer.html.AvatarDownloader;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.http.HttpClient;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class AssetCacheTest {
+    @TempDir
+    Path tempDir;
+
+    private HttpServer server;
+    private final AtomicInteger fullResponses = new AtomicInteger();
+    private final AtomicInteger notModifiedResponses = new AtomicInteger();
+
+    private String startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/", exchange -> {
+            final String etag = "\"" + exchange.getRequestURI().getPath().hashCode() + "\"";
+            if (etag.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+                notModifiedResponses.incrementAndGet();
+                exchange.sendResponseHeaders(304, -1);
+            } else {
+                fullResponses.incrementAndGet();
+                final byte[] body = new byte[100];
+                exchange.getResponseHeaders().add("ETag", etag);
+                exchange.sendResponseHeaders(200, body.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(body);
+                }
+            }
+            exchange.close();
+        });
+        server.start();
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    private static AvatarDownloader.Result download(AssetCache cache, List<String> urls, Path dst)
+            throws IOException, InterruptedException {
+        Files.createDirectories(dst);
+        return new AvatarDownloader(HttpClient.newHttpClient(), 4, Duration.ofSeconds(5), cache).download(urls, dst);
+    }
+
+    @Test
+    void testRevalidation() throws IOException, InterruptedException {
+        final String base = startServer();
+        try {
+            final Path cacheDir = tempDir.resolve("cache");
+            final List<String> urls = List.of(base + "/a.png", base + "/b.png");
+
+            // Expired immediately, every use is revalidated
+            final AssetCache expiring = new AssetCache(cacheDir, Duration.ZERO, 1024 * 1024);
+            download(expiring, urls, tempDir.resolve("export1"));
+            assertEquals(2, fullResponses.get());
+            final AvatarDownloader.Result result = download(expiring, urls, tempDir.resolve("export2"));
+            assertEquals(2, fullResponses.get());
+            assertEquals(2, notModifiedResponses.get());
+            assertEquals(100, Files.size(result.downloaded().get(base + "/a.png")));
+            expiring.save();
+
+            // Reloaded from the index, fresh entries need no request at all
+            final AssetCache fresh = new AssetCache(cacheDir, Duration.ofHours(1), 1024 * 1024);
+            assertEquals(2, fresh.size());
+            final AvatarDownloader.Result cached = download(fresh, urls, tempDir.resolve("export3"));
+            assertEquals(2, fullResponses.get());
+            assertEquals(2, notModifiedResponses.get());
+            assertTrue(Files.isRegularFile(cached.downloaded().get(base + "/b.png")));
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    @Test
+    void testEviction() throws IOException, InterruptedException {
+        final String base = startServer();
+        try {
+            final AssetCache cache = new AssetCache(tempDir.resolve("cache"), Duration.ofHours(1), 250);
+            download(cache, List.of(base + "/a.png"), tempDir.resolve("export1"));
+            final Path exported = download(cache, List.of(base + "/b.png"), tempDir.resolve("export2"))
+                    .downloaded().get(base + "/b.png");
+            // Touch a, b becomes the least recently used
+            download(cache, List.of(base + "/a.png"), tempDir.resolve("export3"));
+            download(cache, List.of(base + "/c.png"), tempDir.resolve("export4"));
+
+            assertEquals(200, cache.getTotalBytes());
+            assertNotNull(cache.lookup(base + "/a.png"));
+            assertNull(cache.lookup(base + "/b.png"));
+            assertNotNull(cache.lookup(base + "/c.png"));
+            // Exports keep their copies
+            assertTrue(Files.isRegularFile(exported));
+        } finally {
+            server.stop(0);
+        }
+    }
+}
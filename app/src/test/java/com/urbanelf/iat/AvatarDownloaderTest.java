@@ -0,0 +1,157 @@
+/*
+ * This file is part of Invision Archive Tools (IAT).
+ *
+ * Copyright (C) 2025 Mark Fisher
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see https://www.gnu.org/licenses/.
+ */
+
+package com.urbanelf.iat;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.sun.net.httpserver.HttpServer;
+import com.urbanelf.iat.content.writer.html.AvatarDownloader;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+public class AvatarDownloaderTest {
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testDownload() throws IOException, InterruptedException {
+        final AtomicInteger inFlight = new AtomicInteger();
+        final AtomicInteger maxInFlight = new AtomicInteger();
+        final AtomicInteger requests = new AtomicInteger();
+
+        final HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        final ExecutorService executor = Executors.newCachedThreadPool();
+        server.setExecutor(executor);
+        server.createContext("/", exchange -> {
+            requests.incrementAndGet();
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            try {
+                final String path = exchange.getRequestURI().getPath();
+                if (path.startsWith("/slow"))
+                    Thread.sleep(2000);
+                else
+                    Thread.sleep(50);
+                if (path.startsWith("/missing")) {
+                    exchange.sendResponseHeaders(404, -1);
+                } else {
+                    final byte[] body = path.getBytes(StandardCharsets.UTF_8);
+                    exchange.sendResponseHeaders(200, body.length);
+                    try (OutputStream out = exchange.getResponseBody()) {
+                        out.write(body);
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                inFlight.decrementAndGet();
+                exchange.close();
+            }
+        });
+        server.start();
+
+        try {
+            final String base = "http://127.0.0.1:" + server.getAddress().getPort();
+            final AvatarDownloader downloader = new AvatarDownloader(HttpClient.newHttpClient(), 2,
+                    Duration.ofMillis(500));
+            final AvatarDownloader.Result result = downloader.download(List.of(
+                    base + "/a/avatar.png",
+                    base + "/b/avatar.png",
+                    base + "/c.png",
+                    base + "/c.png",
+                    base + "/d.png",
+                    base + "/missing.png",
+                    base + "/slow.png",
+                    ""), tempDir);
+
+            assertEquals(4, result.downloaded().size());
+            assertArrayEquals("/c.png".getBytes(StandardCharsets.UTF_8),
+                    Files.readAllBytes(result.downloaded().get(base + "/c.png")));
+            // Same file name, different URLs
+            assertFalse(result.downloaded().get(base + "/a/avatar.png")
+                    .equals(result.downloaded().get(base + "/b/avatar.png")));
+
+            assertEquals("HTTP 404", result.failures().get(base + "/missing.png"));
+            assertEquals("timed out", result.failures().get(base + "/slow.png"));
+            assertEquals("invalid URL", result.failures().get(""));
+            assertFalse(Files.exists(tempDir.resolve("missing.png")));
+
+            // Duplicates fetched once, concurrency bounded
+            assertEquals(6, requests.get());
+            assertTrue(maxInFlight.get() <= 2);
+        } finally {
+            server.stop(0);
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testDeduplication() throws IOException, InterruptedException {
+        final HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/", exchange -> {
+            // Same default avatar behind every URL
+            final byte[] body = "default".getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+            exchange.close();
+        });
+        server.start();
+
+        try {
+            final String base = "http://127.0.0.1:" + server.getAddress().getPort();
+            final AvatarDownloader.Result result = new AvatarDownloader(HttpClient.newHttpClient(), 4,
+                    Duration.ofSeconds(5)).download(List.of(
+                    base + "/a/default.png",
+                    base + "/b/default.png",
+                    base + "/c/other.png"), tempDir);
+
+            assertEquals(3, result.downloaded().size());
+            final Path file = result.downloaded().get(base + "/a/default.png");
+            assertEquals(file, result.downloaded().get(base + "/b/default.png"));
+            assertEquals(file, result.downloaded().get(base + "/c/other.png"));
+            assertTrue(file.getFileName().toString().endsWith(".png"));
+            try (Stream<Path> files = Files.list(tempDir)) {
+                assertEquals(1, files.count());
+            }
+        } finally {
+            server.stop(0);
+        }
+    }
+}
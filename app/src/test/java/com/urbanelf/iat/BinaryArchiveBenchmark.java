@@ -0,0 +1,68 @@
+/*
+ * This file is part of Invision Archive Tools (IAT).
+ *
+ * Copyright (C) 2025 Mark Fisher
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see https://www.gnu.org/licenses/.
+ */
+
+package com.urbanelf.iat;
+
+import com.urbanelf.iat.content.parser.BinaryArchiveReader;
+import com.urbanelf.iat.content.parser.ParserDispatcher;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+@Tag(Throughput.TAG)
+public class BinaryArchiveBenchmark {
+    private static final int PAGES = 300;
+
+    @TempDir
+    Path tempDir;
+
+    private File json() throws Exception {
+        final File json = tempDir.resolve("archive.json").toFile();
+        Files.writeString(json.toPath(), BinaryArchiveTest.archive(PAGES, 25), StandardCharsets.UTF_8);
+        return json;
+    }
+
+    @Test
+    void benchmarkNDJSON() throws Exception {
+        final File json = json();
+        Throughput.report("Read all pages, NDJSON",
+                Throughput.pagesPerSecond(PAGES, () -> ParserDispatcher.process(json)));
+    }
+
+    @Test
+    void benchmarkBinary() throws Exception {
+        final File binary = tempDir.resolve("archive.iab").toFile();
+        BinaryArchiveTest.convert(json(), binary);
+        Throughput.report("Read all pages, BinaryArchiveReader",
+                Throughput.pagesPerSecond(PAGES, () -> {
+                    try (BinaryArchiveReader reader = BinaryArchiveReader.open(binary)) {
+                        Object last = null;
+                        for (int i = 0; i < reader.getPageCount(); i++)
+                            last = reader.readPage(i);
+                        return last;
+                    }
+                }));
+    }
+}
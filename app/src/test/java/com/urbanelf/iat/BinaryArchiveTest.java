@@ -0,0 +1,157 @@
+/*
+ * This file is part of Invision Archive Tools (IAT).
+ *
+ * Copyright (C) 2025 Mark Fisher
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see https://www.gnu.org/licenses/.
+ */
+
+package com.urbanelf.iat;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.urbanelf.iat.content.ArchiveFormat;
+import com.urbanelf.iat.content.model.Post;
+import com.urbanelf.iat.content.model.PostContent;
+import com.urbanelf.iat.content.parser.BinaryArchiveReader;
+import com.urbanelf.iat.content.parser.PageCursor;
+import com.urbanelf.iat.content.parser.ParserDispatcher;
+import com.urbanelf.iat.content.parser.StreamingContentSpec;
+import com.urbanelf.iat.content.writer.WriterDispatcher;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+public class BinaryArchiveTest {
+    @TempDir
+    Path tempDir;
+
+    static String archive(int pages, int postsPerPage) {
+        final StringBuilder builder = new StringBuilder("""
+                {"type":"MESSENGER","title":"Test \\u2603","user_data":{"bob":{"profile_url":"p","avatar_url":"a","group":"g","group_icon_url":"i"}}}
+                """);
+        for (int i = 0; i < pages; i++) {
+            builder.append("{\"content\":[");
+            for (int j = 0; j < postsPerPage; j++) {
+                if (j > 0)
+                    builder.append(',');
+                builder.append("{\"author\":\"").append(j % 3 == 0 ? "ann" : "bob")
+                        .append("\",\"datetime\":\"").append(i).append('-').append(j)
+                        .append("\",\"link\":\"https://example.com/").append(i).append('/').append(j)
+                        .append("\",\"content\":\"<p>caf\\u00e9 \\\"").append(j).append("\\\"</p>")
+                        .append("<p>lorem ipsum dolor sit amet</p>".repeat(10)).append("\"}");
+            }
+            builder.append("]}\n");
+        }
+        return builder.toString();
+    }
+
+    private File writeArchive(String name, String archive) throws IOException {
+        final File file = tempDir.resolve(name).toFile();
+        Files.writeString(file.toPath(), archive, StandardCharsets.UTF_8);
+        return file;
+    }
+
+    static void convert(File json, File binary) throws IOException {
+        WriterDispatcher.write(ParserDispatcher.stream(json), binary, ArchiveFormat.BINARY);
+    }
+
+    private static void assertSamePages(PostContent expected, PostContent actual) {
+        assertEquals(expected.getPages().size(), actual.getPages().size());
+        for (int i = 0; i < expected.getPages().size(); i++) {
+            final List<? extends Post> expectedPage = expected.getPages().get(i);
+            final List<? extends Post> actualPage = actual.getPages().get(i);
+            assertEquals(expectedPage.size(), actualPage.size());
+            for (int j = 0; j < expectedPage.size(); j++) {
+                assertEquals(expectedPage.get(j).getAuthor(), actualPage.get(j).getAuthor());
+                assertEquals(expectedPage.get(j).getDateTime(), actualPage.get(j).getDateTime());
+                assertEquals(expectedPage.get(j).getLink(), actualPage.get(j).getLink());
+                assertEquals(expectedPage.get(j).getContent(), actualPage.get(j).getContent());
+            }
+        }
+    }
+
+    @Test
+    void testRoundTrip() throws IOException {
+        final File json = writeArchive("archive.json", archive(12, 5));
+        final File binary = tempDir.resolve("archive.iab").toFile();
+        convert(json, binary);
+        assertTrue(BinaryArchiveReader.isBinaryArchive(binary));
+
+        final PostContent expected = (PostContent) ParserDispatcher.process(json).content();
+        final PostContent actual = (PostContent) ParserDispatcher.process(binary).content();
+        assertEquals(expected.getTitle(), actual.getTitle());
+        assertEquals(expected.getUserData().get("bob").getGroupIconUrl(), actual.getUserData().get("bob").getGroupIconUrl());
+        assertSamePages(expected, actual);
+        assertEquals(12, ParserDispatcher.probe(binary).pageCount());
+
+        // Back to NDJSON
+        final File restored = tempDir.resolve("restored.json").toFile();
+        try (BinaryArchiveReader reader = BinaryArchiveReader.open(binary)) {
+            reader.writeNDJSON(restored);
+        }
+        assertSamePages(expected, (PostContent) ParserDispatcher.process(restored).content());
+    }
+
+    @Test
+    void testSeek() throws IOException {
+        final File json = writeArchive("archive.json", archive(40, 3));
+        final File binary = tempDir.resolve("archive.iab").toFile();
+        convert(json, binary);
+
+        try (BinaryArchiveReader reader = BinaryArchiveReader.open(binary)) {
+            assertEquals(40, reader.getPageCount());
+            assertEquals("33-2", reader.readPage(33).get(2).getDateTime());
+            assertEquals("7-0", reader.readPage(7).get(0).getDateTime());
+            assertThrows(IndexOutOfBoundsException.class, () -> reader.readPage(40));
+        }
+    }
+
+    @Test
+    void testTruncated() throws IOException {
+        final File json = writeArchive("archive.json", archive(3, 2));
+        final File binary = tempDir.resolve("archive.iab").toFile();
+        convert(json, binary);
+        try (RandomAccessFile file = new RandomAccessFile(binary, "rw")) {
+            file.setLength(file.length() - 3);
+        }
+        assertThrows(IOException.class, () -> BinaryArchiveReader.open(binary));
+    }
+
+    @Test
+    void testStream() throws IOException {
+        final File json = writeArchive("archive.json", archive(5, 2));
+        final File binary = tempDir.resolve("archive.iab").toFile();
+        convert(json, binary);
+
+        final StreamingContentSpec spec = ParserDispatcher.stream(binary);
+        assertEquals("Test \u2603", spec.content().getTitle());
+        try (PageCursor cursor = spec.openPages(3)) {
+            assertEquals("3-1", cursor.next().get(1).getDateTime());
+            assertEquals("4-0", cursor.next().get(0).getDateTime());
+            assertFalse(cursor.hasNext());
+        }
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * This file is part of Invision Archive Tools (IAT).
+ *
+ * Copyright (C) 2025 Mark Fisher
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see https://www.gnu.org/licenses/.
+ */
+
+package com.urbanelf.iat;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.urbanelf.iat.content.model.AuthorTable;
+import com.urbanelf.iat.content.model.ColumnarPageStore;
+import com.urbanelf.iat.content.model.Post;
+import com.urbanelf.iat.content.model.PostContent;
+import com.urbanelf.iat.content.parser.ContentSpec;
+import com.urbanelf.iat.content.parser.ParserDispatcher;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+
+public class ColumnarPageStoreTest {
+    @TempDir
+    Path tempDir;
+
+    private static final String ARCHIVE = """
+            {"type":"MESSENGER","title":"Test","user_data":{"bob":{"profile_url":"","avatar_url":"","group":"","group_icon_url":""}}}
+            {"content":[{"author":"bob","datetime":"1","link":"a","content":"<p>caf\\u00e9 \\u2603</p>"},{"author":"ann","datetime":"2","link":"b","content":""}]}
+            {"content":[]}
+            {"content":[{"author":"bob","datetime":"3","link":"c","content":"<p>x</p>"}]}
+            """;
+
+    @Test
+    void testMatchesObjectPages() throws IOException {
+        final File file = tempDir.resolve("archive.json").toFile();
+        Files.writeString(file.toPath(), ARCHIVE, StandardCharsets.UTF_8);
+
+        final PostContent expected = (PostContent) ParserDispatcher.process(file).content();
+        final ContentSpec spec = ParserDispatcher.process(file, true);
+        final PostContent actual = (PostContent) spec.content();
+
+        assertTrue(actual.getPages() instanceof ColumnarPageStore);
+        assertEquals(expected.getPages().size(), actual.getPages().size());
+        for (int i = 0; i < expected.getPages().size(); i++) {
+            final List<? extends Post> expectedPage = expected.getPages().get(i);
+            final List<? extends Post> actualPage = actual.getPages().get(i);
+            assertEquals(expectedPage.size(), actualPage.size());
+            for (int j = 0; j < expectedPage.size(); j++) {
+                assertEquals(expectedPage.get(j).getAuthor(), actualPage.get(j).getAuthor());
+                assertEquals(expectedPage.get(j).getAuthorId(), actualPage.get(j).getAuthorId());
+                assertEquals(expectedPage.get(j).getDateTime(), actualPage.get(j).getDateTime());
+                assertEquals(expectedPage.get(j).getLink(), actualPage.get(j).getLink());
+                assertEquals(expectedPage.get(j).getContent(), actualPage.get(j).getContent());
+            }
+        }
+        assertEquals("<p>caf\u00e9 \u2603</p>", actual.getPages().get(0).get(0).getContent());
+    }
+
+    @Test
+    void testOversizedPost() {
+        final AuthorTable authors = new AuthorTable(new HashMap<>());
+        final ColumnarPageStore store = new ColumnarPageStore(authors);
+        final String large = "x".repeat(3 * 1024 * 1024);
+        store.add(List.of(new Post(authors, "bob", "1", "a", "small")));
+        store.add(List.of(new Post(authors, "bob", "2", "b", large), new Post(authors, "bob", "3", "c", "after")));
+
+        assertEquals(2, store.size());
+        assertEquals(3, store.getPostCount());
+        assertEquals("small", store.get(0).get(0).getContent());
+        assertEquals(large, store.get(1).get(0).getContent());
+        assertEquals("after", store.get(1).get(1).getContent());
+        assertThrows(IndexOutOfBoundsException.class, () -> store.get(2));
+    }
+}
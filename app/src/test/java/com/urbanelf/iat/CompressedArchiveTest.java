@@ -0,0 +1,88 @@
+/*
+ * This file is part of Invision Archive Tools (IAT).
+ *
+ * Copyright (C) 2025 Mark Fisher
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see https://www.gnu.org/licenses/.
+ */
+
+package com.urbanelf.iat;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.urbanelf.iat.content.model.PostContent;
+import com.urbanelf.iat.content.parser.IndexedArchiveReader;
+import com.urbanelf.iat.content.parser.ParserDispatcher;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+public class CompressedArchiveTest {
+    private static final String ARCHIVE = """
+            {"type":"MESSENGER","title":"Test","user_data":{"bob":{"profile_url":"","avatar_url":"","group":"","group_icon_url":""}}}
+            {"content":[{"author":"bob","datetime":"1","link":"a","content":"<p>caf\\u00e9</p>"}]}
+            {"content":[{"author":"bob","datetime":"2","link":"b","content":"<p>2</p>"},{"author":"bob","datetime":"3","link":"c","content":"<p>3</p>"}]}
+            """;
+
+    @TempDir
+    Path tempDir;
+
+    private File write(OutputStream out, File file) throws IOException {
+        try (out) {
+            out.write(ARCHIVE.getBytes(StandardCharsets.UTF_8));
+        }
+        return file;
+    }
+
+    private void assertArchive(File file, ParserDispatcher.Compression compression) throws IOException {
+        assertEquals(compression, ParserDispatcher.detectCompression(file));
+        final PostContent content = (PostContent) ParserDispatcher.process(file).content();
+        assertEquals("Test", content.getTitle());
+        assertEquals(2, content.getPages().size());
+        assertEquals("<p>caf\u00e9</p>", content.getPages().get(0).get(0).getContent());
+        assertEquals(2, ParserDispatcher.probe(file).pageCount());
+        assertEquals(file.length(), ParserDispatcher.probe(file).size());
+        assertThrows(IOException.class, () -> IndexedArchiveReader.open(file));
+    }
+
+    @Test
+    void testGzip() throws IOException {
+        final File file = tempDir.resolve("archive.json.gz").toFile();
+        assertArchive(write(new GZIPOutputStream(new FileOutputStream(file)), file), ParserDispatcher.Compression.GZIP);
+    }
+
+    @Test
+    void testDeflate() throws IOException {
+        final File file = tempDir.resolve("archive.json").toFile();
+        assertArchive(write(new DeflaterOutputStream(new FileOutputStream(file)), file), ParserDispatcher.Compression.DEFLATE);
+    }
+
+    @Test
+    void testPlain() throws IOException {
+        final File file = tempDir.resolve("archive.json").toFile();
+        write(new FileOutputStream(file), file);
+        assertEquals(ParserDispatcher.Compression.NONE, ParserDispatcher.detectCompression(file));
+        assertEquals(2, ((PostContent) ParserDispatcher.process(file).content()).getPages().size());
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * This file is part of Invision Archive Tools (IAT).
+ *
+ * Copyright (C) 2025 Mark Fisher
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see https://www.gnu.org/licenses/.
+ */
+
+package com.urbanelf.iat;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import com.sun.net.httpserver.HttpServer;
+import com.urbanelf.iat.content.writer.html.AvatarDownloader;
+import com.urbanelf.iat.content.writer.html.ContentImageLocalizer;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ContentImageLocalizerTest {
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testLocalize() throws IOException, InterruptedException {
+        final HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/", exchange -> {
+            final String path = exchange.getRequestURI().getPath();
+            if (path.startsWith("/missing")) {
+                exchange.sendResponseHeaders(404, -1);
+            } else {
+                final byte[] body = path.getBytes(StandardCharsets.UTF_8);
+                exchange.sendResponseHeaders(200, body.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(body);
+                }
+            }
+            exchange.close();
+        });
+        server.start();
+
+        try {
+            final String base = "http://127.0.0.1:" + server.getAddress().getPort();
+            final String first = "<p>Hi <img src=\"" + base + "/smile.png\" srcset=\"" + base + "/smile@2x.png 2x\""
+                    + " alt=\"smile\"></p><img src='data:image/gif;base64,R0lG' data-src='" + base + "/photo.jpg?a=1&amp;b=2'>";
+            final String second = "<img src=\"" + base + "/smile.png\"><img src=\"" + base + "/missing.png\">"
+                    + "<img src=\"relative.png\"><p>no images</p>";
+
+            final ContentImageLocalizer localizer = new ContentImageLocalizer();
+            localizer.collect(first);
+            localizer.collect(second);
+            assertEquals(Set.of(base + "/smile.png", base + "/smile@2x.png", base + "/photo.jpg?a=1&b=2",
+                    base + "/missing.png"), localizer.getUrls());
+
+            // Reported from the client's threads
+            final AtomicInteger completed = new AtomicInteger();
+            final AtomicInteger reportedTotal = new AtomicInteger();
+            final AvatarDownloader downloader = new AvatarDownloader(HttpClient.newHttpClient(), 2, Duration.ofSeconds(5));
+            final AvatarDownloader.Result result = localizer.download(downloader, tempDir, "../res/img",
+                    (done, total) -> {
+                        completed.incrementAndGet();
+                        reportedTotal.set(total);
+                    });
+            assertEquals(4, completed.get());
+            assertEquals(4, reportedTotal.get());
+            assertEquals(3, result.downloaded().size());
+            assertEquals(1, result.failures().size());
+
+            final String smile = "../res/img/" + result.downloaded().get(base + "/smile.png").getFileName();
+            final String smile2x = "../res/img/" + result.downloaded().get(base + "/smile@2x.png").getFileName();
+            final String photo = "../res/img/" + result.downloaded().get(base + "/photo.jpg?a=1&b=2").getFileName();
+            assertEquals("<p>Hi <img src=\"" + smile + "\" srcset=\"" + smile2x + " 2x\" alt=\"smile\"></p>"
+                    + "<img src=\"" + photo + "\" data-src=\"" + photo + "\">", localizer.rewrite(first));
+            // Failed and relative images are left alone
+            assertEquals("<img src=\"" + smile + "\"><img src=\"" + base + "/missing.png\">"
+                    + "<img src=\"relative.png\"><p>no images</p>", localizer.rewrite(second));
+            final String plain = "<p>no images</p>";
+            assertSame(plain, localizer.rewrite(plain));
+        } finally {
+            server.stop(0);
+        }
+    }
+}
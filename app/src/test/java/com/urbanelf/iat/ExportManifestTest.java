@@ -0,0 +1,69 @@
+/*
+ * This file is part of Invision Archive Tools (IAT).
+ *
+ * Copyright (C) 2025 Mark Fisher
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see https://www.gnu.org/licenses/.
+ */
+
+package com.urbanelf.iat;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import com.urbanelf.iat.content.writer.html.DirectoryExportTree;
+import com.urbanelf.iat.content.writer.html.ExportManifest;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+
+public class ExportManifestTest {
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testRoundTrip() throws IOException {
+        final DirectoryExportTree tree = new DirectoryExportTree(tempDir.toFile());
+        assertEquals(0, ExportManifest.read(tree).getPageCount());
+
+        final ExportManifest manifest = new ExportManifest("source", 2);
+        manifest.setPageHash(1, "a");
+        manifest.setPageHash(2, "b");
+        tree.write(ExportManifest.FILE_NAME, manifest.toBytes());
+
+        final ExportManifest read = ExportManifest.read(tree);
+        assertEquals("source", read.getSourceId());
+        assertEquals(2, read.getPageCount());
+        assertEquals("a", read.getPageHash(1));
+        assertEquals("b", read.getPageHash(2));
+        assertNull(read.getPageHash(3));
+    }
+
+    @Test
+    void testUnreadable() throws IOException {
+        final DirectoryExportTree tree = new DirectoryExportTree(tempDir.toFile());
+        tree.write(ExportManifest.FILE_NAME, "{\"version\":0,\"pages\":[\"a\"]}".getBytes(StandardCharsets.UTF_8));
+        assertEquals(0, ExportManifest.read(tree).getPageCount());
+        // Written before manifests named their archive
+        tree.write(ExportManifest.FILE_NAME, "{\"version\":1,\"pages\":[\"a\"]}".getBytes(StandardCharsets.UTF_8));
+        assertEquals(0, ExportManifest.read(tree).getPageCount());
+        assertNull(ExportManifest.read(tree).getSourceId());
+        tree.write(ExportManifest.FILE_NAME, "not json".getBytes(StandardCharsets.UTF_8));
+        assertEquals(0, ExportManifest.read(tree).getPageCount());
+    }
+}
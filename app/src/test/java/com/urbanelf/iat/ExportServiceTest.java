@@ -0,0 +1,121 @@
+/*
+ * This file is part of Invision Archive Tools (IAT).
+ *
+ * Copyright (C) 2025 Mark Fisher
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see https://www.gnu.org/licenses/.
+ */
+
+package com.urbanelf.iat;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.urbanelf.iat.content.writer.ExportService;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class ExportServiceTest {
+    @Test
+    void testCompletes() throws Exception {
+        final CountDownLatch done = new CountDownLatch(1);
+        final Future<File> task = ExportService.submit(() -> new File("out"), future -> done.countDown());
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(new File("out"), task.get());
+    }
+
+    @Test
+    void testCancelInterrupts() throws Exception {
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch interrupted = new CountDownLatch(1);
+        final CountDownLatch done = new CountDownLatch(1);
+        final Future<File> task = ExportService.submit(() -> {
+            started.countDown();
+            try {
+                Thread.sleep(60_000);
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+            }
+            return null;
+        }, future -> done.countDown());
+
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        task.cancel(true);
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+        assertTrue(task.isCancelled());
+    }
+
+    @Test
+    void testCancelWaitsForExport() throws Exception {
+        final CountDownLatch started = new CountDownLatch(1);
+        final AtomicBoolean stopped = new AtomicBoolean();
+        final AtomicBoolean stoppedOnDone = new AtomicBoolean();
+        final CountDownLatch done = new CountDownLatch(1);
+        final Future<File> task = ExportService.submit(() -> {
+            started.countDown();
+            try {
+                Thread.sleep(60_000);
+            } catch (InterruptedException e) {
+                // Still cleaning up after the interrupt
+                Thread.sleep(200);
+            }
+            stopped.set(true);
+            return null;
+        }, future -> {
+            stoppedOnDone.set(stopped.get());
+            done.countDown();
+        });
+
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        task.cancel(true);
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertTrue(stoppedOnDone.get());
+    }
+
+    @Test
+    void testCancelBeforeStart() throws Exception {
+        // Occupy every export thread
+        final CountDownLatch release = new CountDownLatch(1);
+        final List<Future<File>> blockers = new ArrayList<>();
+        for (int i = 0; i < 2; i++)
+            blockers.add(ExportService.submit(() -> {
+                release.await();
+                return null;
+            }, future -> { }));
+
+        final AtomicBoolean ran = new AtomicBoolean();
+        final CountDownLatch done = new CountDownLatch(1);
+        final Future<File> task = ExportService.submit(() -> {
+            ran.set(true);
+            return null;
+        }, future -> done.countDown());
+        task.cancel(true);
+        // Reported without waiting for a thread
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        release.countDown();
+        for (Future<File> blocker : blockers)
+            blocker.get(5, TimeUnit.SECONDS);
+        assertFalse(ran.get());
+    }
+}
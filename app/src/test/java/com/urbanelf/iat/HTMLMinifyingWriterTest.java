@@ -0,0 +1,85 @@
+/*
+ * This file is part of Invision Archive Tools (IAT).
+ *
+ * Copyright (C) 2025 Mark Fisher
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see https://www.gnu.org/licenses/.
+ */
+
+package com.urbanelf.iat;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.urbanelf.iat.content.writer.html.HTMLMinifyingWriter;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+
+public class HTMLMinifyingWriterTest {
+    private static String minify(String html) throws IOException {
+        final StringWriter out = new StringWriter();
+        try (Writer writer = new HTMLMinifyingWriter(out)) {
+            writer.write(html);
+        }
+        return out.toString();
+    }
+
+    private static String minifyByChar(String html) throws IOException {
+        final StringWriter out = new StringWriter();
+        try (Writer writer = new HTMLMinifyingWriter(out)) {
+            for (int i = 0; i < html.length(); i++)
+                writer.write(html.charAt(i));
+        }
+        return out.toString();
+    }
+
+    @Test
+    void testWhitespaceAndComments() throws IOException {
+        assertEquals("<div>\n<p>a b</p>\n</div>",
+                minify("<div>\n    <p>a   \t b</p>\n    <!-- note -->\n</div>"));
+        // Comments never join words
+        assertEquals("a b", minify("a <!-- c --> b"));
+        // Tags and attribute values are left alone
+        assertEquals("<a title=\"x  y\"   href='>'>link</a>", minify("<a title=\"x  y\"   href='>'>link</a>"));
+        assertEquals("<!DOCTYPE html>\n<html>", minify("<!DOCTYPE html>\n\n<html>"));
+    }
+
+    @Test
+    void testRawElements() throws IOException {
+        final String pre = "<pre>  a\n\n  <b>b</b>  </prefix> <!-- kept --></pre>";
+        assertEquals("<p>x</p> " + pre + " <p>y</p>", minify("<p>x</p>  " + pre + "  <p>y</p>"));
+        final String script = "<SCRIPT>\n  if (a < b)  x = \"<!--\";\n</SCRIPT >";
+        assertEquals(script + "\n<p>", minify(script + "\n\n<p>"));
+        final String textarea = "<textarea name=\"t\">  two  spaces  </textarea>";
+        assertEquals(textarea, minify(textarea));
+        // Self-closing is not an element start
+        assertEquals("<pre/> a", minify("<pre/>   a"));
+    }
+
+    @Test
+    void testStrayLessThan() throws IOException {
+        assertEquals("1 < 2 <pre>  x  </pre>", minify("1  <  2 <pre>  x  </pre>"));
+        assertEquals("<3 ok", minify("<3   ok"));
+        assertEquals("a <!-", minify("a <!-"));
+    }
+
+    @Test
+    void testSplitWrites() throws IOException {
+        final String html = "<div>\n  <!-- c -->\n  <pre> a  b </pre>  <i>c   d</i>\n</div>  ";
+        assertEquals(minify(html), minifyByChar(html));
+    }
+}
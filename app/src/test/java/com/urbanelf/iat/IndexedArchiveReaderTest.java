@@ -0,0 +1,97 @@
+/*
+ * This file is part of Invision Archive Tools (IAT).
+ *
+ * Copyright (C) 2025 Mark Fisher
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see https://www.gnu.org/licenses/.
+ */
+
+package com.urbanelf.iat;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.urbanelf.iat.content.parser.IndexedArchiveReader;
+import com.urbanelf.iat.proto.constants.ContentType;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+public class IndexedArchiveReaderTest {
+    private static final String ARCHIVE = """
+            {"type":"MESSENGER","title":"Test","user_data":{"bob":{"profile_url":"","avatar_url":"","group":"","group_icon_url":""}}}\r
+            {"content":[{"author":"bob","datetime":"1","link":"a","content":"<p>\\u00e9</p>"}]}\r
+            {"content":[{"author":"bob","datetime":"2","link":"b","content":"<p>2</p>"}]}\r
+            {"content":[{"author":"bob","datetime":"3","link":"c","content":"<p>3</p>"}]}""";
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testRandomAccess() throws IOException {
+        final File file = tempDir.resolve("archive.json").toFile();
+        Files.writeString(file.toPath(), ARCHIVE);
+
+        try (IndexedArchiveReader reader = IndexedArchiveReader.open(file)) {
+            assertEquals(ContentType.MESSENGER, reader.getType());
+            assertEquals("Test", reader.getContent().getTitle());
+            assertEquals(3, reader.getPageCount());
+            assertEquals("c", reader.readPage(2).get(0).getLink());
+            assertEquals("<p>é</p>", reader.readPage(0).get(0).getContent());
+            assertThrows(IndexOutOfBoundsException.class, () -> reader.readPage(3));
+        }
+        assertTrue(IndexedArchiveReader.getIndexFile(file).isFile());
+
+        // Reopen from the persisted index
+        try (IndexedArchiveReader reader = IndexedArchiveReader.open(file)) {
+            assertEquals("b", reader.readPage(1).get(0).getLink());
+        }
+    }
+
+    @Test
+    void testStaleIndexIsRebuilt() throws IOException {
+        final File file = tempDir.resolve("archive.json").toFile();
+        Files.writeString(file.toPath(), ARCHIVE);
+        IndexedArchiveReader.open(file).close();
+
+        // Archive grew since the index was written
+        Files.writeString(file.toPath(), ARCHIVE + "\n{\"content\":[]}\n");
+        try (IndexedArchiveReader reader = IndexedArchiveReader.open(file)) {
+            assertEquals(4, reader.getPageCount());
+            assertTrue(reader.readPage(3).isEmpty());
+        }
+    }
+
+    @Test
+    void testCloseReleasesFiles() throws IOException {
+        final File file = tempDir.resolve("archive.json").toFile();
+        Files.writeString(file.toPath(), ARCHIVE);
+        try (IndexedArchiveReader reader = IndexedArchiveReader.open(file)) {
+            reader.readPage(0);
+        }
+
+        // As recovery does after reading an archive (nothing is left mapped)
+        Files.delete(file.toPath());
+        IndexedArchiveReader.deleteIndex(file);
+        assertFalse(file.exists());
+        assertFalse(IndexedArchiveReader.getIndexFile(file).exists());
+    }
+}
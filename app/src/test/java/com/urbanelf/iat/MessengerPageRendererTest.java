@@ -0,0 +1,92 @@
+/*
+ * This file is part of Invision Archive Tools (IAT).
+ *
+ * Copyright (C) 2025 Mark Fisher
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see https://www.gnu.org/licenses/.
+ */
+
+package com.urbanelf.iat;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.urbanelf.iat.content.model.AuthorTable;
+import com.urbanelf.iat.content.model.Post;
+import com.urbanelf.iat.content.model.UserData;
+import com.urbanelf.iat.content.writer.html.MessengerHTMLWriter;
+
+import org.json.JSONObject;
+import org.junit.jupiter.api.Test;
+import org.thymeleaf.TemplateEngine;
+import org.thymeleaf.templatemode.TemplateMode;
+import org.thymeleaf.templateresolver.ClassLoaderTemplateResolver;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+public class MessengerPageRendererTest {
+    static TemplateEngine createEngine() {
+        final TemplateEngine engine = new TemplateEngine();
+        final ClassLoaderTemplateResolver resolver = new ClassLoaderTemplateResolver();
+        resolver.setTemplateMode(TemplateMode.HTML);
+        resolver.setPrefix("templates/html/");
+        resolver.setSuffix(".html");
+        resolver.setCharacterEncoding("UTF-8");
+        engine.setTemplateResolver(resolver);
+        return engine;
+    }
+
+    static MessengerHTMLWriter.Page page(int posts) {
+        final HashMap<String, UserData> userData = new HashMap<>();
+        userData.put("bob", new UserData("https://example.com/bob?a=1&b=2", "../res/bob.png", "g", "i"));
+        userData.put("O'Neil <3", new UserData("https://example.com/\"oneil\"", "../res/o.png", "g", "i"));
+        final AuthorTable authors = new AuthorTable(userData);
+
+        final ArrayList<Post> page = new ArrayList<>();
+        for (int i = 0; i < posts; i++) {
+            // "ann" is not in the user data
+            final String author = switch (i % 3) {
+                case 0 -> "bob";
+                case 1 -> "O'Neil <3";
+                default -> "ann";
+            };
+            page.add(new Post(authors, author, "2025-01-0" + (i % 9 + 1) + "T12:00:00Z",
+                    "https://example.com/post?id=" + i + "&x=\"y\"",
+                    "<p>caf\u00e9 &amp; <b>" + i + "</b></p>" + "<p>lorem ipsum dolor sit amet</p>".repeat(10)));
+        }
+        final String manifest = new JSONObject().put("page", 2).toString(4);
+        return new MessengerHTMLWriter.Page("Title & \"quotes\" \u2603", userData, manifest,
+                page, authors.getUserDataArray());
+    }
+
+    static String render(MessengerHTMLWriter writer, TemplateEngine engine, MessengerHTMLWriter.Page page)
+            throws IOException {
+        final StringWriter out = new StringWriter();
+        writer.renderPage(engine, page, out);
+        return out.toString();
+    }
+
+    @Test
+    void testSameOutput() throws IOException {
+        final TemplateEngine engine = createEngine();
+        for (int posts : new int[] {0, 1, 7}) {
+            final MessengerHTMLWriter.Page page = page(posts);
+            assertEquals(render(new MessengerHTMLWriter(MessengerHTMLWriter.Options.DEFAULT), engine, page),
+                    render(new MessengerHTMLWriter(MessengerHTMLWriter.Options.DEFAULT.withRenderer(MessengerHTMLWriter.PageRenderer.PRECOMPILED)), engine, page));
+        }
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * This file is part of Invision Archive Tools (IAT).
+ *
+ * Copyright (C) 2025 Mark Fisher
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see https://www.gnu.org/licenses/.
+ */
+
+package com.urbanelf.iat;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import com.urbanelf.iat.content.model.AuthorTable;
+import com.urbanelf.iat.content.model.Post;
+import com.urbanelf.iat.content.writer.html.PageChunker;
+import com.urbanelf.iat.content.writer.html.Pagination;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+public class PageChunkerTest {
+    private static final AuthorTable AUTHORS = new AuthorTable(new HashMap<>());
+
+    private static List<Post> page(int posts, int contentLength) {
+        final ArrayList<Post> page = new ArrayList<>();
+        for (int i = 0; i < posts; i++)
+            page.add(new Post(AUTHORS, "author", "", "", "x".repeat(contentLength)));
+        return page;
+    }
+
+    private static List<List<? extends Post>> chunk(PageChunker chunker) {
+        final ArrayList<List<? extends Post>> pages = new ArrayList<>();
+        while (chunker.hasNext())
+            pages.add(chunker.next());
+        return pages;
+    }
+
+    @Test
+    void testOriginal() {
+        final List<List<Post>> source = List.of(page(3, 10), page(0, 10), page(2, 10));
+        final PageChunker chunker = new PageChunker(source.iterator(), Pagination.ORIGINAL);
+        final List<List<? extends Post>> pages = chunk(chunker);
+        assertEquals(3, pages.size());
+        for (int i = 0; i < pages.size(); i++)
+            assertSame(source.get(i), pages.get(i));
+        assertArrayEquals(new int[]{2, 0}, chunker.getSourcePages().get(1));
+    }
+
+    @Test
+    void testPostBound() {
+        // 25 + 25 posts over pages of 10
+        final List<List<Post>> source = List.of(page(25, 10), page(25, 10));
+        final PageChunker chunker = new PageChunker(source.iterator(), new Pagination(10, 0));
+        final List<List<? extends Post>> pages = chunk(chunker);
+        assertEquals(5, pages.size());
+        pages.forEach(page -> assertEquals(10, page.size()));
+        // Second source page starts at post 5 of page 3
+        assertArrayEquals(new int[]{1, 0}, chunker.getSourcePages().get(0));
+        assertArrayEquals(new int[]{3, 5}, chunker.getSourcePages().get(1));
+    }
+
+    @Test
+    void testByteBound() {
+        final long postSize = PageChunker.POST_OVERHEAD + 1000;
+        final List<List<Post>> source = List.of(page(3, 1000), page(0, 1000), page(4, 1000));
+        final PageChunker chunker = new PageChunker(source.iterator(), new Pagination(0, postSize * 2));
+        final List<List<? extends Post>> pages = chunk(chunker);
+        assertEquals(List.of(2, 2, 2, 1), pages.stream().map(List::size).toList());
+        // The empty page points at the post that follows it
+        assertArrayEquals(new int[]{2, 1}, chunker.getSourcePages().get(1));
+        assertArrayEquals(new int[]{2, 1}, chunker.getSourcePages().get(2));
+
+        // Oversized posts get a page each
+        final PageChunker oversized = new PageChunker(List.of(page(2, 5000)).iterator(), new Pagination(0, 100));
+        assertEquals(2, chunk(oversized).size());
+    }
+
+    @Test
+    void testByteBoundCountsUTF8() {
+        // 1000 chars, 2000 bytes each
+        final List<Post> page = new ArrayList<>();
+        for (int i = 0; i < 4; i++)
+            page.add(new Post(AUTHORS, "author", "", "", "\u00e9".repeat(1000)));
+        final long postSize = PageChunker.POST_OVERHEAD + 2000;
+        final PageChunker chunker = new PageChunker(List.of(page).iterator(), new Pagination(0, postSize * 2));
+        assertEquals(List.of(2, 2), chunk(chunker).stream().map(List::size).toList());
+    }
+}
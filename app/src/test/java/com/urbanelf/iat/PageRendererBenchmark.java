@@ -0,0 +1,47 @@
+/*
+ * This file is part of Invision Archive Tools (IAT).
+ *
+ * Copyright (C) 2025 Mark Fisher
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see https://www.gnu.org/licenses/.
+ */
+
+package com.urbanelf.iat;
+
+import com.urbanelf.iat.content.writer.html.MessengerHTMLWriter;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.thymeleaf.TemplateEngine;
+
+@Tag(Throughput.TAG)
+public class PageRendererBenchmark {
+    private static void benchmark(MessengerHTMLWriter.PageRenderer renderer) throws Exception {
+        final TemplateEngine engine = MessengerPageRendererTest.createEngine();
+        final MessengerHTMLWriter.Page page = MessengerPageRendererTest.page(50);
+        final MessengerHTMLWriter writer = new MessengerHTMLWriter(MessengerHTMLWriter.Options.DEFAULT.withRenderer(renderer));
+        Throughput.report("Render (50 posts), " + renderer,
+                Throughput.pagesPerSecond(1, () -> MessengerPageRendererTest.render(writer, engine, page)));
+    }
+
+    @Test
+    void benchmarkTemplateEngine() throws Exception {
+        benchmark(MessengerHTMLWriter.PageRenderer.TEMPLATE_ENGINE);
+    }
+
+    @Test
+    void benchmarkPrecompiled() throws Exception {
+        benchmark(MessengerHTMLWriter.PageRenderer.PRECOMPILED);
+    }
+}
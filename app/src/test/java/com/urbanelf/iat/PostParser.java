@@ -17,11 +17,13 @@
  * along with this program. If not, see https://www.gnu.org/licenses/.
  */
 
-package com.urbanelf.iat.content.parser;
+package com.urbanelf.iat;
 
+import com.urbanelf.iat.content.model.AuthorTable;
 import com.urbanelf.iat.content.model.Content;
 import com.urbanelf.iat.content.model.PostContent;
 import com.urbanelf.iat.content.model.Post;
+import com.urbanelf.iat.content.parser.Parser;
 
 import org.json.JSONArray;
 import org.json.JSONObject;
@@ -30,22 +32,33 @@ import java.io.BufferedReader;
 import java.io.IOException;
 import java.util.ArrayList;
 
+/**
+ * The original DOM parser: every page line is built into a {@link JSONObject} before
+ * its posts are read. Kept as the reference that {@link com.urbanelf.iat.content.parser.PullPostParser}
+ * is checked and benchmarked against.
+ */
 public class PostParser implements Parser {
     @Override
-    public Content parse(JSONObject header, BufferedReader reader) throws IOException {
+    public Content parseHeader(JSONObject header) {
         // Parse header (handled by content)
-        final PostContent content = new PostContent(header);
+        return new PostContent(header);
+    }
+
+    @Override
+    public void parsePages(Content target, BufferedReader reader) throws IOException {
+        final PostContent content = (PostContent) target;
 
         // Parse pages (NDJSON)
         String line;
-        while ((line = reader.readLine()) != null) {
-            final JSONObject pageObject = new JSONObject(line);
-            final JSONArray postsObject = pageObject.getJSONArray(Content.PAGE_CONTENT);
-            final ArrayList<Post> page = new ArrayList<>();
-            postsObject.forEach(o -> page.add(new Post((JSONObject) o)));
-            content.getPages().add(page);
-        }
-
-        return content;
+        while ((line = reader.readLine()) != null)
+            content.getPages().add(parsePage(line, content.getAuthors()));
+    }
+
+    public static ArrayList<Post> parsePage(String line, AuthorTable authors) {
+        final JSONObject pageObject = new JSONObject(line);
+        final JSONArray postsObject = pageObject.getJSONArray(Content.PAGE_CONTENT);
+        final ArrayList<Post> page = new ArrayList<>();
+        postsObject.forEach(o -> page.add(new Post((JSONObject) o, authors)));
+        return page;
     }
 }
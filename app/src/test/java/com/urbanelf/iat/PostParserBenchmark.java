@@ -0,0 +1,55 @@
+/*
+ * This file is part of Invision Archive Tools (IAT).
+ *
+ * Copyright (C) 2025 Mark Fisher
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see https://www.gnu.org/licenses/.
+ */
+
+package com.urbanelf.iat;
+
+import com.urbanelf.iat.content.parser.Parser;
+import com.urbanelf.iat.content.parser.PullPostParser;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+@Tag(Throughput.TAG)
+public class PostParserBenchmark {
+    private static final int PAGES = 300;
+
+    // About 8 MB of NDJSON
+    private static final String ARCHIVE = PullPostParserTest.archive(PAGES, 25, 1000);
+
+    private static void benchmark(String name, Parser parser) throws Exception {
+        Throughput.report("Parse, " + name,
+                Throughput.pagesPerSecond(PAGES, () -> PullPostParserTest.parse(parser, ARCHIVE)));
+    }
+
+    @Test
+    void benchmarkPostParser() throws Exception {
+        benchmark("PostParser", new PostParser());
+    }
+
+    @Test
+    void benchmarkPullPostParser() throws Exception {
+        benchmark("PullPostParser", new PullPostParser());
+    }
+
+    @Test
+    void benchmarkPullPostParserParallel() throws Exception {
+        final int threads = Runtime.getRuntime().availableProcessors();
+        benchmark("PullPostParser, parallelism " + threads, new PullPostParser(threads));
+    }
+}
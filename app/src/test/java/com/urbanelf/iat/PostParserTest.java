@@ -0,0 +1,64 @@
+/*
+ * This file is part of Invision Archive Tools (IAT).
+ *
+ * Copyright (C) 2025 Mark Fisher
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see https://www.gnu.org/licenses/.
+ */
+
+package com.urbanelf.iat;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import com.urbanelf.iat.content.model.AuthorTable;
+import com.urbanelf.iat.content.model.Post;
+import com.urbanelf.iat.content.model.PostContent;
+
+import org.json.JSONObject;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+
+public class PostParserTest {
+    private static final String HEADER = """
+            {"type":"MESSENGER","title":"Test","user_data":{"bob":{"profile_url":"","avatar_url":"","group":"","group_icon_url":""}}}""";
+
+    @Test
+    void testAuthorsAreInterned() throws IOException {
+        final String pages = """
+                {"content":[{"author":"bob","datetime":"1","link":"a","content":""},{"author":"ann","datetime":"2","link":"b","content":""}]}
+                {"content":[{"author":"bob","datetime":"3","link":"c","content":""}]}
+                """;
+        final PostContent content = (PostContent) new PostParser()
+                .parse(new JSONObject(HEADER), new BufferedReader(new StringReader(pages)));
+        final AuthorTable authors = content.getAuthors();
+
+        final Post first = content.getPages().get(0).get(0);
+        final Post last = content.getPages().get(1).get(0);
+        assertEquals(first.getAuthorId(), last.getAuthorId());
+        assertSame(first.getAuthor(), last.getAuthor());
+        assertSame(content.getUserData().get("bob"), authors.getUserDataArray()[first.getAuthorId()]);
+
+        // Missing from user data
+        final Post unknown = content.getPages().get(0).get(1);
+        assertEquals("ann", authors.getName(unknown.getAuthorId()));
+        assertNotNull(authors.getUserData(unknown.getAuthorId()));
+        assertEquals(List.of("ann"), authors.getUnknownAuthors());
+    }
+}
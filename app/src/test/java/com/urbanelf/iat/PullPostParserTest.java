@@ -0,0 +1,103 @@
+/*
+ * This file is part of Invision Archive Tools (IAT).
+ *
+ * Copyright (C) 2025 Mark Fisher
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see https://www.gnu.org/licenses/.
+ */
+
+package com.urbanelf.iat;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.urbanelf.iat.content.model.AuthorTable;
+import com.urbanelf.iat.content.model.Post;
+import com.urbanelf.iat.content.model.PostContent;
+import com.urbanelf.iat.content.parser.Parser;
+import com.urbanelf.iat.content.parser.PullPostParser;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.HashMap;
+import java.util.List;
+
+public class PullPostParserTest {
+    private static final String HEADER = """
+            {"type":"MESSENGER","title":"Test","user_data":{"bob":{"profile_url":"","avatar_url":"","group":"","group_icon_url":""}}}""";
+
+    static String archive(int pages, int postsPerPage, int contentLength) {
+        // JSON-escaped, as written by the server
+        final String content = "<p class=\\\"x\\\">" + "Lorem ipsum \\u00e9\\n ".repeat(contentLength / 20) + "<\\/p>";
+        final StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < pages; i++) {
+            builder.append("{\"content\": [");
+            for (int j = 0; j < postsPerPage; j++) {
+                if (j > 0)
+                    builder.append(", ");
+                builder.append("{\"author\": \"bob\", \"datetime\": \"2025-01-0").append(j % 9 + 1)
+                        .append("\", \"extra\": [1, 2.5, true, null, {\"a\": []}], \"link\": \"https://example.com/")
+                        .append(i).append('/').append(j)
+                        .append("\", \"content\": \"").append(content).append("\"}");
+            }
+            builder.append("]}\n");
+        }
+        return builder.toString();
+    }
+
+    static PostContent parse(Parser parser, String archive) throws IOException {
+        return (PostContent) parser.parse(new JSONObject(HEADER), new BufferedReader(new StringReader(archive)));
+    }
+
+    private static void assertSameContent(PostContent expected, PostContent actual) {
+        assertEquals(expected.getTitle(), actual.getTitle());
+        assertEquals(expected.getUserData().keySet(), actual.getUserData().keySet());
+        assertEquals(expected.getPages().size(), actual.getPages().size());
+        for (int i = 0; i < expected.getPages().size(); i++) {
+            final List<? extends Post> expectedPage = expected.getPages().get(i);
+            final List<? extends Post> actualPage = actual.getPages().get(i);
+            assertEquals(expectedPage.size(), actualPage.size());
+            for (int j = 0; j < expectedPage.size(); j++) {
+                assertEquals(expectedPage.get(j).getAuthor(), actualPage.get(j).getAuthor());
+                assertEquals(expectedPage.get(j).getDateTime(), actualPage.get(j).getDateTime());
+                assertEquals(expectedPage.get(j).getLink(), actualPage.get(j).getLink());
+                assertEquals(expectedPage.get(j).getContent(), actualPage.get(j).getContent());
+            }
+        }
+    }
+
+    @Test
+    void testMatchesPostParser() throws IOException {
+        final String archive = archive(20, 7, 200);
+        assertSameContent(parse(new PostParser(), archive), parse(new PullPostParser(), archive));
+    }
+
+    @Test
+    void testParallelMatchesSerial() throws IOException {
+        final String archive = archive(40, 5, 100);
+        assertSameContent(parse(new PullPostParser(), archive), parse(new PullPostParser(4), archive));
+    }
+
+    @Test
+    void testMalformedPage() {
+        final AuthorTable authors = new AuthorTable(new HashMap<>());
+        assertThrows(JSONException.class, () -> PullPostParser.parsePage("{\"content\": [{\"author\": \"bob\"}]}", authors));
+        assertThrows(JSONException.class, () -> PullPostParser.parsePage("{\"content\": [}", authors));
+    }
+}
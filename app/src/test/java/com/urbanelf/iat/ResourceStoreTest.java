@@ -0,0 +1,84 @@
+/*
+ * This file is part of Invision Archive Tools (IAT).
+ *
+ * Copyright (C) 2025 Mark Fisher
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see https://www.gnu.org/licenses/.
+ */
+
+package com.urbanelf.iat;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.urbanelf.iat.content.writer.html.DirectoryExportTree;
+import com.urbanelf.iat.content.writer.html.ResourceStore;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+public class ResourceStoreTest {
+    private static final String RES_PATH = "templates/html/messenger/res";
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testExtractAndLink() throws IOException {
+        final Map<String, Path> resources = new ResourceStore(tempDir.resolve("store")).get(RES_PATH);
+        assertFalse(resources.isEmpty());
+        for (Map.Entry<String, Path> resource : resources.entrySet()) {
+            try (InputStream in = ClassLoader.getSystemResourceAsStream(RES_PATH + "/" + resource.getKey())) {
+                assertArrayEquals(in.readAllBytes(), Files.readAllBytes(resource.getValue()));
+            }
+        }
+
+        // A new store over the same directory reuses the extracted files
+        final Path css = resources.get("main.css");
+        Files.writeString(css, "modified");
+        assertEquals("modified", Files.readString(new ResourceStore(tempDir.resolve("store")).get(RES_PATH).get("main.css")));
+
+        final DirectoryExportTree tree = new DirectoryExportTree(tempDir.resolve("export").toFile());
+        tree.link("res/main.css", css);
+        final Path linked = tempDir.resolve("export/res/main.css");
+        assertEquals("modified", Files.readString(linked));
+        // Identical, left as is
+        tree.link("res/main.css", css);
+        assertTrue(Files.isSameFile(linked, css) || Files.mismatch(linked, css) == -1);
+    }
+
+    @Test
+    void testStaleCopyIsReplaced() throws IOException {
+        // Copy extracted by an older build of the same version
+        final Path stale = tempDir.resolve("store").resolve(RES_PATH);
+        Files.createDirectories(stale);
+        Files.writeString(stale.resolve("main.css"), "stale");
+        Files.writeString(stale.resolve(".complete"), "main.css\n");
+
+        final Map<String, Path> resources = new ResourceStore(tempDir.resolve("store")).get(RES_PATH);
+        try (InputStream in = ClassLoader.getSystemResourceAsStream(RES_PATH + "/main.css")) {
+            assertArrayEquals(in.readAllBytes(), Files.readAllBytes(resources.get("main.css")));
+        }
+        assertTrue(resources.size() > 1);
+        assertFalse(Files.exists(stale.resolve("main.css")));
+    }
+}
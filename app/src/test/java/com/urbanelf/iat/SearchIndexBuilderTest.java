@@ -0,0 +1,94 @@
+/*
+ * This file is part of Invision Archive Tools (IAT).
+ *
+ * Copyright (C) 2025 Mark Fisher
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see https://www.gnu.org/licenses/.
+ */
+
+package com.urbanelf.iat;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.urbanelf.iat.content.writer.html.DirectoryExportTree;
+import com.urbanelf.iat.content.writer.html.SearchIndexBuilder;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+public class SearchIndexBuilderTest {
+    @TempDir
+    Path tempDir;
+
+    private JSONObject readShard(int shard) throws IOException {
+        final String script = Files.readString(tempDir.resolve("export/res/search/" + shard + ".js"));
+        final String prefix = "searchIndex.addShard(" + shard + ", ";
+        assertTrue(script.startsWith(prefix));
+        return new JSONObject(script.substring(prefix.length(), script.lastIndexOf(')')));
+    }
+
+    @Test
+    void testIndex() throws IOException {
+        final DirectoryExportTree tree = new DirectoryExportTree(tempDir.resolve("export").toFile());
+        try (SearchIndexBuilder builder = new SearchIndexBuilder()) {
+            builder.add(1, 0, "<p>Hello <b>world</b>, hello again</p>");
+            builder.add(1, 1, "<blockquote>caf&#233; &amp; tea</blockquote>");
+            builder.add(3, 2, "<img src=\"hello.png\">HELLO");
+            assertEquals(1, builder.write(tree, "res/search"));
+        }
+
+        final JSONObject shard = readShard(0);
+        // [page delta, post, ...]
+        final JSONArray hello = shard.getJSONArray("hello");
+        assertEquals(4, hello.length());
+        assertEquals(1, ((Number) hello.get(0)).intValue());
+        assertEquals(0, ((Number) hello.get(1)).intValue());
+        assertEquals(2, ((Number) hello.get(2)).intValue());
+        assertEquals(2, ((Number) hello.get(3)).intValue());
+        assertTrue(shard.has("caf\u00e9"));
+        assertTrue(shard.has("tea"));
+        // Markup and entity names are not text
+        assertFalse(shard.has("png"));
+        assertFalse(shard.has("amp"));
+    }
+
+    @Test
+    void testSharding() throws IOException {
+        final DirectoryExportTree tree = new DirectoryExportTree(tempDir.resolve("export").toFile());
+        final int shardCount;
+        try (SearchIndexBuilder builder = new SearchIndexBuilder()) {
+            for (int page = 1; page <= 500; page++) {
+                for (int post = 0; post < 25; post++)
+                    builder.add(page, post, "common word" + page + "x" + post + " shared" + (post % 5) + " filler text");
+            }
+            shardCount = builder.write(tree, "res/search");
+        }
+        assertTrue(shardCount > 1);
+
+        int tokens = 0;
+        for (int shard = 0; shard < shardCount; shard++)
+            tokens += readShard(shard).length();
+        // Unique words, "common", "filler", "text" and the five "shared" tokens
+        assertEquals(500 * 25 + 8, tokens);
+        assertFalse(Files.exists(tempDir.resolve("export/res/search/" + shardCount + ".js")));
+    }
+}
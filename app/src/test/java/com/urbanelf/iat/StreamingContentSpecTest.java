@@ -0,0 +1,106 @@
+/*
+ * This file is part of Invision Archive Tools (IAT).
+ *
+ * Copyright (C) 2025 Mark Fisher
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see https://www.gnu.org/licenses/.
+ */
+
+package com.urbanelf.iat;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.urbanelf.iat.content.model.AuthorTable;
+import com.urbanelf.iat.content.model.PostContent;
+import com.urbanelf.iat.content.parser.IndexedArchiveReader;
+import com.urbanelf.iat.content.parser.PageCursor;
+import com.urbanelf.iat.content.parser.ParserDispatcher;
+import com.urbanelf.iat.content.parser.StreamingContentSpec;
+import com.urbanelf.iat.proto.constants.ContentType;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+
+public class StreamingContentSpecTest {
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testPagesAreStreamedInOrder() throws IOException {
+        final File file = tempDir.resolve("archive.json").toFile();
+        Files.writeString(file.toPath(), """
+                {"type":"MESSENGER","title":"Test","user_data":{"bob":{"profile_url":"","avatar_url":"","group":"","group_icon_url":""}}}
+                {"content":[{"author":"bob","datetime":"1","link":"a","content":"<p>1</p>"}]}
+                {"content":[{"author":"bob","datetime":"2","link":"b","content":"<p>2</p>"},{"author":"bob","datetime":"3","link":"c","content":"<p>3</p>"}]}
+                """);
+
+        final StreamingContentSpec spec = ParserDispatcher.stream(file);
+        assertEquals(ContentType.MESSENGER, spec.type());
+        assertEquals("Test", spec.content().getTitle());
+        // Header only
+        assertTrue(((PostContent) spec.content()).getPages().isEmpty());
+
+        try (PageCursor cursor = spec.openPages()) {
+            assertEquals("a", cursor.next().get(0).getLink());
+            assertEquals(1, cursor.getIndex());
+            assertEquals("c", cursor.next().get(1).getLink());
+            assertFalse(cursor.hasNext());
+            assertEquals(2, cursor.getIndex());
+        }
+    }
+
+    @Test
+    void testOpenPagesSeeksThroughIndex() throws IOException {
+        final File file = tempDir.resolve("archive.json").toFile();
+        Files.writeString(file.toPath(), """
+                {"type":"MESSENGER","title":"Test","user_data":{"bob":{"profile_url":"","avatar_url":"","group":"","group_icon_url":""}}}
+                {"content":[{"author":"bob","datetime":"1","link":"a","content":"<p>1</p>"}]}
+                {"content":[{"author":"bob","datetime":"2","link":"b","content":"<p>2</p>"}]}
+                {"content":[{"author":"bob","datetime":"3","link":"c","content":"<p>3</p>"}]}
+                """);
+
+        final StreamingContentSpec spec = ParserDispatcher.stream(file);
+        try (PageCursor cursor = spec.openPages(2)) {
+            assertEquals("c", cursor.next().get(0).getLink());
+            assertFalse(cursor.hasNext());
+        }
+        assertTrue(IndexedArchiveReader.getIndexFile(file).isFile());
+    }
+
+    @Test
+    void testParallelCursorKeepsOrder() throws IOException {
+        final StringBuilder pages = new StringBuilder();
+        for (int i = 0; i < 100; i++)
+            pages.append("{\"content\":[{\"author\":\"bob\",\"datetime\":\"").append(i)
+                    .append("\",\"link\":\"\",\"content\":\"\"}]}\n");
+
+        try (PageCursor cursor = new PageCursor(new BufferedReader(new StringReader(pages.toString())),
+                new AuthorTable(new HashMap<>()), 4)) {
+            for (int i = 0; i < 100; i++)
+                assertEquals(String.valueOf(i), cursor.next().get(0).getDateTime());
+            assertFalse(cursor.hasNext());
+            assertEquals(100, cursor.getIndex());
+        }
+    }
+}
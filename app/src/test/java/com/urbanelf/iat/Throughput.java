@@ -0,0 +1,69 @@
+/*
+ * This file is part of Invision Archive Tools (IAT).
+ *
+ * Copyright (C) 2025 Mark Fisher
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see https://www.gnu.org/licenses/.
+ */
+
+package com.urbanelf.iat;
+
+/**
+ * Timing loop shared by the {@code *Benchmark} classes. They carry {@link #TAG}, which the
+ * {@code test} task excludes; run them with {@code gradle benchmark}.
+ */
+final class Throughput {
+    static final String TAG = "benchmark";
+
+    private static final long WARM_UP_NANOS = 3_000_000_000L;
+    private static final long MEASURE_NANOS = 5_000_000_000L;
+
+    // Keeps results reachable so the JIT cannot drop the work that produced them
+    private static volatile Object sink;
+
+    interface Run {
+        Object run() throws Exception;
+    }
+
+    private Throughput() {
+    }
+
+    /**
+     * Repeats {@code run} for a warm-up period, then for a timed period.
+     *
+     * @param pages Pages handled by one call of {@code run}
+     * @return Pages per second over the timed period
+     */
+    static double pagesPerSecond(int pages, Run run) throws Exception {
+        repeat(run, WARM_UP_NANOS);
+        return pages * repeat(run, MEASURE_NANOS);
+    }
+
+    static void report(String name, double pagesPerSecond) {
+        System.out.printf("%-40s %,12.0f pages/s%n", name, pagesPerSecond);
+    }
+
+    // Calls per second
+    private static double repeat(Run run, long nanos) throws Exception {
+        final long start = System.nanoTime();
+        long elapsed;
+        int calls = 0;
+        do {
+            sink = run.run();
+            calls++;
+            elapsed = System.nanoTime() - start;
+        } while (elapsed < nanos);
+        return calls * 1e9 / elapsed;
+    }
+}
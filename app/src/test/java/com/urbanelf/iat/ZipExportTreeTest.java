@@ -0,0 +1,96 @@
+/*
+ * This file is part of Invision Archive Tools (IAT).
+ *
+ * Copyright (C) 2025 Mark Fisher
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see https://www.gnu.org/licenses/.
+ */
+
+package com.urbanelf.iat;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import com.urbanelf.iat.content.writer.html.ZipExportTree;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+public class ZipExportTreeTest {
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testEntries() throws IOException {
+        final File zip = tempDir.resolve("archive.zip").toFile();
+        final byte[] page = "<p>page</p>".repeat(100).getBytes(StandardCharsets.UTF_8);
+        final byte[] image = new byte[1024];
+        final Path stagingPath;
+        try (ZipExportTree tree = new ZipExportTree(zip)) {
+            tree.write("page/1.html", page);
+            tree.write("res/main.css", new ByteArrayInputStream("body {}".getBytes(StandardCharsets.UTF_8)));
+            stagingPath = tree.stage("res");
+            Files.write(stagingPath.resolve("avatar.png"), image);
+            assertEquals(tempDir.toFile(), tree.getLocation());
+            tree.commit();
+        }
+        // Staged files are moved into the archive
+        assertFalse(Files.exists(stagingPath));
+
+        try (ZipFile zipFile = new ZipFile(zip)) {
+            final Map<String, ZipEntry> entries = new HashMap<>();
+            zipFile.stream().forEach(entry -> entries.put(entry.getName(), entry));
+            assertEquals(3, entries.size());
+
+            final ZipEntry pageEntry = entries.get("archive/page/1.html");
+            assertEquals(ZipEntry.DEFLATED, pageEntry.getMethod());
+            assertArrayEquals(page, zipFile.getInputStream(pageEntry).readAllBytes());
+
+            final ZipEntry imageEntry = entries.get("archive/res/avatar.png");
+            assertEquals(ZipEntry.STORED, imageEntry.getMethod());
+            assertArrayEquals(image, zipFile.getInputStream(imageEntry).readAllBytes());
+
+            assertEquals("body {}", new String(zipFile.getInputStream(entries.get("archive/res/main.css"))
+                    .readAllBytes(), StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    void testUncommittedIsDiscarded() throws IOException {
+        final File zip = tempDir.resolve("archive.zip").toFile();
+        try (ZipExportTree tree = new ZipExportTree(zip)) {
+            tree.write("page/1.html", "<p>page</p>".getBytes(StandardCharsets.UTF_8));
+            Files.write(tree.stage("res").resolve("avatar.png"), new byte[16]);
+            // Export failed or was cancelled before committing
+            assertFalse(zip.exists());
+        }
+        assertFalse(zip.exists());
+        try (Stream<Path> files = Files.list(tempDir)) {
+            assertEquals(0, files.count());
+        }
+    }
+}